@@ -1,6 +1,7 @@
 package ai.docsite.translator.agent;
 
 import ai.docsite.translator.config.Config;
+import ai.docsite.translator.config.PlannerMode;
 import ai.docsite.translator.git.CommitService;
 import ai.docsite.translator.git.CommitService.CommitResult;
 import ai.docsite.translator.git.GitWorkflowResult;
@@ -20,6 +21,9 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Orchestrates the LangChain4j agent execution and interprets its decisions.
+ *
+ * <p>With the default {@link PlannerMode#FAST} planner the plan is derived from the configuration and the diff,
+ * and no agent is built; {@link PlannerMode#AGENT} asks the agent instead.</p>
  */
 public class AgentOrchestrator {
 
@@ -55,9 +59,9 @@ public class AgentOrchestrator {
             return AgentRunResult.empty();
         }
 
-        TranslationAgent agent = agentFactory.createAgent(config, workflowResult);
-        String prompt = AgentPromptFormatter.buildPrompt(config, workflowResult);
-        String plan = agent.orchestrate(prompt);
+        String plan = config.agentPlanner() == PlannerMode.AGENT
+                ? planWithAgent(config, workflowResult)
+                : DeterministicPlanner.plan(config, workflowResult.diffMetadata());
         boolean shouldTranslate = containsKeyword(plan, "TRANSLATE");
         boolean shouldCreatePr = containsKeyword(plan, "CREATE_PR");
 
@@ -144,6 +148,12 @@ public class AgentOrchestrator {
                 translationFailures);
     }
 
+    private String planWithAgent(Config config, GitWorkflowResult workflowResult) {
+        TranslationAgent agent = agentFactory.createAgent(config, workflowResult);
+        String prompt = AgentPromptFormatter.buildPrompt(config, workflowResult);
+        return agent.orchestrate(prompt);
+    }
+
     private boolean containsKeyword(String plan, String keyword) {
         return plan != null && plan.toUpperCase().contains(keyword);
     }
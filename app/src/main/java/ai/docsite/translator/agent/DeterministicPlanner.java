@@ -0,0 +1,28 @@
+package ai.docsite.translator.agent;
+
+import ai.docsite.translator.config.Config;
+import ai.docsite.translator.diff.DiffMetadata;
+
+/**
+ * Computes the run plan without an agent round-trip. Produces the same keywords the routing chat model answers
+ * with, so the orchestrator interprets both plans alike.
+ */
+final class DeterministicPlanner {
+
+    static final String NO_ACTION = "NO_ACTION";
+    static final String REVIEW_ONLY = "REVIEW_ONLY_CREATE_PR";
+    static final String TRANSLATE_AND_CREATE_PR = "TRANSLATE_AND_CREATE_PR";
+
+    private DeterministicPlanner() {
+    }
+
+    static String plan(Config config, DiffMetadata diffMetadata) {
+        if (diffMetadata.changes().isEmpty()) {
+            return NO_ACTION;
+        }
+        if (config.mode().isDev()) {
+            return REVIEW_ONLY;
+        }
+        return TRANSLATE_AND_CREATE_PR;
+    }
+}
@@ -20,16 +20,25 @@ import ai.docsite.translator.translate.LineStructureFormatter;
 import ai.docsite.translator.translate.MockTranslator;
 import ai.docsite.translator.translate.PassThroughTranslator;
 import ai.docsite.translator.translate.TranslationMode;
+import ai.docsite.translator.translate.TranslationDecisionService;
 import ai.docsite.translator.translate.TranslationService;
 import ai.docsite.translator.translate.TranslationTaskPlanner;
 import ai.docsite.translator.translate.Translator;
 import ai.docsite.translator.translate.TranslatorFactory;
 import ai.docsite.translator.translate.conflict.ConflictCleanupService;
+import ai.docsite.translator.translate.memory.DecisionMemory;
+import ai.docsite.translator.translate.memory.ParagraphMemory;
+import ai.docsite.translator.translate.memory.TranslationMemory;
+import ai.docsite.translator.translate.ratelimit.AdaptiveRateLimiter;
+import ai.docsite.translator.translate.ratelimit.RateLimitedChatModel;
+import ai.docsite.translator.translate.ratelimit.RateLimitedStreamingChatModel;
 import ai.docsite.translator.writer.DefaultLineStructureAdjuster;
 import ai.docsite.translator.writer.DefaultLineStructureAnalyzer;
 import ai.docsite.translator.writer.DocumentWriter;
 import dev.langchain4j.model.googleai.GoogleAiGeminiChatModel;
+import dev.langchain4j.model.googleai.GoogleAiGeminiStreamingChatModel;
 import dev.langchain4j.model.ollama.OllamaChatModel;
+import dev.langchain4j.model.ollama.OllamaStreamingChatModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
@@ -80,10 +89,27 @@ public final class CliApplication {
         LOGGER.info("Running in {} mode (dryRun={}): upstream={} origin={}",
                 config.mode(), config.dryRun(), config.upstreamUrl(), config.originUrl());
 
-        dev.langchain4j.model.chat.ChatModel chatModel = createChatModel(config);
-        TranslationService translationService = createTranslationService(config, chatModel);
+        // the memories append to their files during the run; closing them flushes and releases the handles
+        try (TranslationMemory translationMemory = createTranslationMemory(config);
+             ParagraphMemory paragraphMemory = createParagraphMemory(config);
+             DecisionMemory decisionMemory = createDecisionMemory(config)) {
+            return run(config, translationMemory, paragraphMemory, decisionMemory);
+        }
+    }
+
+    private int run(Config config, TranslationMemory translationMemory, ParagraphMemory paragraphMemory,
+                    DecisionMemory decisionMemory) {
+        AdaptiveRateLimiter rateLimiter = new AdaptiveRateLimiter(config.llmRequestsPerMinute(), config.llmTokensPerMinute());
+        dev.langchain4j.model.chat.ChatModel chatModel = new RateLimitedChatModel(createChatModel(config), rateLimiter);
+        dev.langchain4j.model.chat.StreamingChatModel streamingChatModel = config.llmStreaming()
+                ? new RateLimitedStreamingChatModel(createStreamingChatModel(config), rateLimiter)
+                : null;
+        TranslationService translationService = createTranslationService(config, chatModel, streamingChatModel,
+                translationMemory, paragraphMemory);
         PullRequestService pullRequestService = new PullRequestService(new PullRequestComposer());
-        TranslationTaskPlanner taskPlanner = new TranslationTaskPlanner(chatModel, config.translationMode());
+        TranslationTaskPlanner taskPlanner = new TranslationTaskPlanner(chatModel, config.translationMode(), paragraphMemory,
+                config.translationSegmentTokenBudget(), config.planningConcurrency(),
+                config.translationDecisionPrompt(), config.translationDecisionMaxTokens(), decisionMemory);
         DocumentWriter documentWriter = new DocumentWriter();
         CommitService commitService = new CommitService();
         ConflictCleanupService conflictCleanupService = new ConflictCleanupService(translationService, config.translationMode());
@@ -118,27 +144,73 @@ public final class CliApplication {
         };
     }
 
-    private TranslationService createTranslationService(Config config, dev.langchain4j.model.chat.ChatModel chatModel) {
-        TranslatorFactory factory = buildTranslatorFactory(chatModel, config);
+    private dev.langchain4j.model.chat.StreamingChatModel createStreamingChatModel(Config config) {
+        TranslatorConfig translatorConfig = config.translatorConfig();
+        return switch (translatorConfig.provider()) {
+            case OLLAMA -> createOllamaStreamingChatModel(translatorConfig);
+            case GEMINI -> createGeminiStreamingChatModel(translatorConfig, config.secrets());
+        };
+    }
+
+    private TranslationService createTranslationService(Config config, dev.langchain4j.model.chat.ChatModel chatModel,
+                                                        dev.langchain4j.model.chat.StreamingChatModel streamingChatModel,
+                                                        TranslationMemory translationMemory,
+                                                        ParagraphMemory paragraphMemory) {
+        TranslatorFactory factory = buildTranslatorFactory(chatModel, streamingChatModel, config);
         LineStructureFormatter formatter = new LineStructureFormatter(new DefaultLineStructureAnalyzer(), new DefaultLineStructureAdjuster());
         return new TranslationService(factory, formatter,
                 config.llmMaxRetryAttempts(),
                 config.llmInitialBackoffSeconds(),
                 config.llmMaxBackoffSeconds(),
                 config.llmRetryJitterFactor(),
-                config.maxFilesPerRun());
+                config.translationConcurrency(),
+                config.segmentConcurrency(),
+                translationMemory,
+                paragraphMemory,
+                config.translationBatchTokenBudget());
+    }
+
+    private TranslationMemory createTranslationMemory(Config config) {
+        if (config.translationMode() != TranslationMode.PRODUCTION) {
+            return TranslationMemory.disabled();
+        }
+        TranslatorConfig translatorConfig = config.translatorConfig();
+        return TranslationMemory.open(config.cacheDirectory(), config.translationMemoryMaxEntries(),
+                translatorConfig.provider().name(), translatorConfig.modelName(), ChatModelTranslator.PROMPT_VERSION);
+    }
+
+    private ParagraphMemory createParagraphMemory(Config config) {
+        if (config.translationMode() != TranslationMode.PRODUCTION) {
+            return ParagraphMemory.disabled();
+        }
+        return ParagraphMemory.open(config.cacheDirectory(), config.paragraphMemoryMaxEntries());
     }
 
-    private TranslatorFactory buildTranslatorFactory(dev.langchain4j.model.chat.ChatModel chatModel, Config config) {
-        Translator productionTranslator = createProductionTranslator(chatModel, config);
+    private DecisionMemory createDecisionMemory(Config config) {
+        if (config.translationMode() != TranslationMode.PRODUCTION) {
+            return DecisionMemory.disabled();
+        }
+        TranslatorConfig translatorConfig = config.translatorConfig();
+        String promptVersion = TranslationDecisionService.memoryVersion(config.translationDecisionPrompt(),
+                config.translationDecisionMaxTokens());
+        return DecisionMemory.open(config.cacheDirectory(), config.decisionMemoryMaxEntries(),
+                translatorConfig.provider().name(), translatorConfig.modelName(), promptVersion);
+    }
+
+    private TranslatorFactory buildTranslatorFactory(dev.langchain4j.model.chat.ChatModel chatModel,
+                                                     dev.langchain4j.model.chat.StreamingChatModel streamingChatModel,
+                                                     Config config) {
+        Translator productionTranslator = createProductionTranslator(chatModel, streamingChatModel, config);
         Translator dryRunTranslator = new PassThroughTranslator();
         Translator mockTranslator = new MockTranslator();
         return new TranslatorFactory(productionTranslator, dryRunTranslator, mockTranslator);
     }
 
-    private Translator createProductionTranslator(dev.langchain4j.model.chat.ChatModel chatModel, Config config) {
+    private Translator createProductionTranslator(dev.langchain4j.model.chat.ChatModel chatModel,
+                                                  dev.langchain4j.model.chat.StreamingChatModel streamingChatModel,
+                                                  Config config) {
         TranslatorConfig translatorConfig = config.translatorConfig();
-        return new ChatModelTranslator(chatModel, translatorConfig.provider().name(), translatorConfig.modelName());
+        return new ChatModelTranslator(chatModel, streamingChatModel, translatorConfig.provider().name(), translatorConfig.modelName());
     }
 
     private dev.langchain4j.model.chat.ChatModel createOllamaChatModel(TranslatorConfig translatorConfig) {
@@ -173,4 +245,35 @@ public final class CliApplication {
             throw new IllegalStateException("Failed to initialize Gemini chat model", ex);
         }
     }
+
+    private dev.langchain4j.model.chat.StreamingChatModel createOllamaStreamingChatModel(TranslatorConfig translatorConfig) {
+        try {
+            String baseUrl = translatorConfig.baseUrl()
+                    .orElseThrow(() -> new IllegalStateException("OLLAMA_BASE_URL must be configured when LLM_PROVIDER=ollama"));
+            return OllamaStreamingChatModel.builder()
+                    .baseUrl(baseUrl)
+                    .modelName(translatorConfig.modelName())
+                    .temperature(0.1)
+                    .timeout(Duration.ofMinutes(2))
+                    .build();
+        } catch (RuntimeException ex) {
+            throw new IllegalStateException("Failed to initialize Ollama streaming chat model", ex);
+        }
+    }
+
+    private dev.langchain4j.model.chat.StreamingChatModel createGeminiStreamingChatModel(TranslatorConfig translatorConfig, Secrets secrets) {
+        String apiKey = secrets.geminiApiKey()
+                .filter(value -> !value.isBlank())
+                .orElseThrow(() -> new IllegalStateException("GEMINI_API_KEY must be provided when LLM_PROVIDER=gemini"));
+        try {
+            return GoogleAiGeminiStreamingChatModel.builder()
+                    .apiKey(apiKey)
+                    .modelName(translatorConfig.modelName())
+                    .temperature(0.1)
+                    .timeout(Duration.ofMinutes(2))
+                    .build();
+        } catch (RuntimeException ex) {
+            throw new IllegalStateException("Failed to initialize Gemini streaming chat model", ex);
+        }
+    }
 }
@@ -1,7 +1,11 @@
 package ai.docsite.translator.config;
 
+import ai.docsite.translator.diff.MergeDiffMode;
+import ai.docsite.translator.translate.DecisionPromptMode;
 import ai.docsite.translator.translate.TranslationMode;
 import java.net.URI;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
@@ -31,11 +35,52 @@ public record Config(
         int llmMaxRetryAttempts,
         int llmInitialBackoffSeconds,
         int llmMaxBackoffSeconds,
-        double llmRetryJitterFactor
+        double llmRetryJitterFactor,
+        int translationConcurrency,
+        int segmentConcurrency,
+        int llmRequestsPerMinute,
+        int llmTokensPerMinute,
+        Path cacheDirectory,
+        int translationMemoryMaxEntries,
+        int paragraphMemoryMaxEntries,
+        int translationBatchTokenBudget,
+        boolean llmStreaming,
+        int translationSegmentTokenBudget,
+        int planningConcurrency,
+        DecisionPromptMode translationDecisionPrompt,
+        int translationDecisionMaxTokens,
+        int decisionMemoryMaxEntries,
+        PlannerMode agentPlanner,
+        boolean gitReuseWorkspace,
+        int gitCloneDepth,
+        Optional<Instant> gitShallowSince,
+        boolean gitSharedObjects,
+        MergeDiffMode mergeDiffMode,
+        int diffRenameScore,
+        int catchUpMaxCommits,
+        int catchUpMaxFiles
 ) {
 
     private static final String DEFAULT_TEMPLATE_TOKEN = "<upstream-short-sha>";
     private static final Set<String> DEFAULT_DOCUMENT_EXTENSIONS = Set.of("md", "mdx", "txt", "html");
+    private static final int DEFAULT_TRANSLATION_CONCURRENCY = 1;
+    private static final int DEFAULT_SEGMENT_CONCURRENCY = 1;
+    private static final int DEFAULT_LLM_REQUESTS_PER_MINUTE = 0;
+    private static final int DEFAULT_LLM_TOKENS_PER_MINUTE = 0;
+    private static final int DEFAULT_TRANSLATION_MEMORY_MAX_ENTRIES = 10_000;
+    private static final int DEFAULT_PARAGRAPH_MEMORY_MAX_ENTRIES = 50_000;
+    private static final int DEFAULT_TRANSLATION_BATCH_TOKEN_BUDGET = 0;
+    private static final boolean DEFAULT_LLM_STREAMING = false;
+    private static final boolean DEFAULT_GIT_REUSE_WORKSPACE = false;
+    private static final int DEFAULT_GIT_CLONE_DEPTH = 0;
+    private static final boolean DEFAULT_GIT_SHARED_OBJECTS = false;
+    private static final int DEFAULT_DIFF_RENAME_SCORE = 0;
+    private static final int DEFAULT_CATCH_UP_MAX_COMMITS = 0;
+    private static final int DEFAULT_CATCH_UP_MAX_FILES = 0;
+    private static final int DEFAULT_TRANSLATION_SEGMENT_TOKEN_BUDGET = 0;
+    private static final int DEFAULT_PLANNING_CONCURRENCY = 1;
+    private static final int DEFAULT_TRANSLATION_DECISION_MAX_TOKENS = 0;
+    private static final int DEFAULT_DECISION_MEMORY_MAX_ENTRIES = 10_000;
 
     public Config {
         Objects.requireNonNull(mode, "mode");
@@ -82,6 +127,115 @@ public record Config(
         if (llmRetryJitterFactor < 0.0 || llmRetryJitterFactor > 1.0) {
             throw new IllegalArgumentException("llmRetryJitterFactor must be between 0.0 and 1.0");
         }
+        if (translationConcurrency < 1) {
+            throw new IllegalArgumentException("translationConcurrency must be at least 1");
+        }
+        if (segmentConcurrency < 1) {
+            throw new IllegalArgumentException("segmentConcurrency must be at least 1");
+        }
+        if (llmRequestsPerMinute < 0) {
+            throw new IllegalArgumentException("llmRequestsPerMinute must be greater than or equal to zero");
+        }
+        if (llmTokensPerMinute < 0) {
+            throw new IllegalArgumentException("llmTokensPerMinute must be greater than or equal to zero");
+        }
+        cacheDirectory = cacheDirectory == null ? defaultCacheDirectory() : cacheDirectory;
+        if (translationMemoryMaxEntries < 0) {
+            throw new IllegalArgumentException("translationMemoryMaxEntries must be greater than or equal to zero");
+        }
+        if (paragraphMemoryMaxEntries < 0) {
+            throw new IllegalArgumentException("paragraphMemoryMaxEntries must be greater than or equal to zero");
+        }
+        if (translationBatchTokenBudget < 0) {
+            throw new IllegalArgumentException("translationBatchTokenBudget must be greater than or equal to zero");
+        }
+        if (translationSegmentTokenBudget < 0) {
+            throw new IllegalArgumentException("translationSegmentTokenBudget must be greater than or equal to zero");
+        }
+        if (planningConcurrency < 1) {
+            throw new IllegalArgumentException("planningConcurrency must be at least 1");
+        }
+        translationDecisionPrompt = translationDecisionPrompt == null ? DecisionPromptMode.FULL : translationDecisionPrompt;
+        if (translationDecisionMaxTokens < 0) {
+            throw new IllegalArgumentException("translationDecisionMaxTokens must be greater than or equal to zero");
+        }
+        if (decisionMemoryMaxEntries < 0) {
+            throw new IllegalArgumentException("decisionMemoryMaxEntries must be greater than or equal to zero");
+        }
+        agentPlanner = agentPlanner == null ? PlannerMode.FAST : agentPlanner;
+        if (gitCloneDepth < 0) {
+            throw new IllegalArgumentException("gitCloneDepth must be greater than or equal to zero");
+        }
+        gitShallowSince = gitShallowSince == null ? Optional.empty() : gitShallowSince;
+        if (gitSharedObjects && (gitCloneDepth > 0 || gitShallowSince.isPresent())) {
+            // the fetch would treat the shallow upstream history as complete and leave origin commits missing
+            throw new IllegalArgumentException("gitSharedObjects cannot be combined with shallow clones");
+        }
+        mergeDiffMode = mergeDiffMode == null ? MergeDiffMode.WORKING_TREE : mergeDiffMode;
+        if (diffRenameScore < 0 || diffRenameScore > 100) {
+            throw new IllegalArgumentException("diffRenameScore must be between 0 and 100");
+        }
+        if (catchUpMaxCommits < 0) {
+            throw new IllegalArgumentException("catchUpMaxCommits must be greater than or equal to zero");
+        }
+        if (catchUpMaxFiles < 0) {
+            throw new IllegalArgumentException("catchUpMaxFiles must be greater than or equal to zero");
+        }
+    }
+
+    /**
+     * Creates a configuration using default values for the tuning options that were added after the initial release.
+     */
+    public Config(Mode mode,
+                  URI upstreamUrl,
+                  URI originUrl,
+                  String originBranch,
+                  String translationBranchTemplate,
+                  Optional<String> since,
+                  boolean dryRun,
+                  TranslationMode translationMode,
+                  LogFormat logFormat,
+                  TranslatorConfig translatorConfig,
+                  Secrets secrets,
+                  Optional<String> translationTargetSha,
+                  int maxFilesPerRun,
+                  List<String> translationIncludePaths,
+                  Set<String> documentExtensions,
+                  int llmMaxRetryAttempts,
+                  int llmInitialBackoffSeconds,
+                  int llmMaxBackoffSeconds,
+                  double llmRetryJitterFactor) {
+        this(mode, upstreamUrl, originUrl, originBranch, translationBranchTemplate, since, dryRun, translationMode,
+                logFormat, translatorConfig, secrets, translationTargetSha, maxFilesPerRun, translationIncludePaths,
+                documentExtensions, llmMaxRetryAttempts, llmInitialBackoffSeconds, llmMaxBackoffSeconds,
+                llmRetryJitterFactor,
+                DEFAULT_TRANSLATION_CONCURRENCY,
+                DEFAULT_SEGMENT_CONCURRENCY,
+                DEFAULT_LLM_REQUESTS_PER_MINUTE,
+                DEFAULT_LLM_TOKENS_PER_MINUTE,
+                defaultCacheDirectory(),
+                DEFAULT_TRANSLATION_MEMORY_MAX_ENTRIES,
+                DEFAULT_PARAGRAPH_MEMORY_MAX_ENTRIES,
+                DEFAULT_TRANSLATION_BATCH_TOKEN_BUDGET,
+                DEFAULT_LLM_STREAMING,
+                DEFAULT_TRANSLATION_SEGMENT_TOKEN_BUDGET,
+                DEFAULT_PLANNING_CONCURRENCY,
+                DecisionPromptMode.FULL,
+                DEFAULT_TRANSLATION_DECISION_MAX_TOKENS,
+                DEFAULT_DECISION_MEMORY_MAX_ENTRIES,
+                PlannerMode.FAST,
+                DEFAULT_GIT_REUSE_WORKSPACE,
+                DEFAULT_GIT_CLONE_DEPTH,
+                Optional.empty(),
+                DEFAULT_GIT_SHARED_OBJECTS,
+                MergeDiffMode.WORKING_TREE,
+                DEFAULT_DIFF_RENAME_SCORE,
+                DEFAULT_CATCH_UP_MAX_COMMITS,
+                DEFAULT_CATCH_UP_MAX_FILES);
+    }
+
+    public static Path defaultCacheDirectory() {
+        return Path.of(System.getProperty("user.dir"), "workspace", ".cache");
     }
 
     private static String requireNonBlank(String value, String fieldName) {
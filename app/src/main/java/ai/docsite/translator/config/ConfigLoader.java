@@ -1,8 +1,16 @@
 package ai.docsite.translator.config;
 
 import ai.docsite.translator.cli.CliArguments;
+import ai.docsite.translator.diff.MergeDiffMode;
+import ai.docsite.translator.translate.DecisionPromptMode;
 import ai.docsite.translator.translate.TranslationMode;
 import java.net.URI;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -38,6 +46,29 @@ public class ConfigLoader {
     static final String ENV_LLM_INITIAL_BACKOFF_SECONDS = "LLM_INITIAL_BACKOFF_SECONDS";
     static final String ENV_LLM_MAX_BACKOFF_SECONDS = "LLM_MAX_BACKOFF_SECONDS";
     static final String ENV_LLM_RETRY_JITTER_FACTOR = "LLM_RETRY_JITTER_FACTOR";
+    static final String ENV_TRANSLATION_CONCURRENCY = "TRANSLATION_CONCURRENCY";
+    static final String ENV_TRANSLATION_SEGMENT_CONCURRENCY = "TRANSLATION_SEGMENT_CONCURRENCY";
+    static final String ENV_LLM_REQUESTS_PER_MINUTE = "LLM_REQUESTS_PER_MINUTE";
+    static final String ENV_LLM_TOKENS_PER_MINUTE = "LLM_TOKENS_PER_MINUTE";
+    static final String ENV_CACHE_DIR = "TRANSLATOR_CACHE_DIR";
+    static final String ENV_TRANSLATION_MEMORY_MAX_ENTRIES = "TRANSLATION_MEMORY_MAX_ENTRIES";
+    static final String ENV_PARAGRAPH_MEMORY_MAX_ENTRIES = "PARAGRAPH_MEMORY_MAX_ENTRIES";
+    static final String ENV_TRANSLATION_BATCH_TOKEN_BUDGET = "TRANSLATION_BATCH_TOKEN_BUDGET";
+    static final String ENV_LLM_STREAMING = "LLM_STREAMING";
+    static final String ENV_TRANSLATION_SEGMENT_TOKEN_BUDGET = "TRANSLATION_SEGMENT_TOKEN_BUDGET";
+    static final String ENV_PLANNING_CONCURRENCY = "PLANNING_CONCURRENCY";
+    static final String ENV_TRANSLATION_DECISION_PROMPT = "TRANSLATION_DECISION_PROMPT";
+    static final String ENV_TRANSLATION_DECISION_MAX_TOKENS = "TRANSLATION_DECISION_MAX_TOKENS";
+    static final String ENV_DECISION_MEMORY_MAX_ENTRIES = "DECISION_MEMORY_MAX_ENTRIES";
+    static final String ENV_AGENT_PLANNER = "AGENT_PLANNER";
+    static final String ENV_GIT_REUSE_WORKSPACE = "GIT_REUSE_WORKSPACE";
+    static final String ENV_GIT_CLONE_DEPTH = "GIT_CLONE_DEPTH";
+    static final String ENV_GIT_SHALLOW_SINCE = "GIT_SHALLOW_SINCE";
+    static final String ENV_GIT_SHARED_OBJECTS = "GIT_SHARED_OBJECTS";
+    static final String ENV_MERGE_DIFF_MODE = "MERGE_DIFF_MODE";
+    static final String ENV_DIFF_RENAME_SCORE = "DIFF_RENAME_SCORE";
+    static final String ENV_CATCH_UP_MAX_COMMITS = "CATCH_UP_MAX_COMMITS";
+    static final String ENV_CATCH_UP_MAX_FILES = "CATCH_UP_MAX_FILES";
 
     private static final String DEFAULT_ORIGIN_BRANCH = "main";
     private static final String DEFAULT_BRANCH_TEMPLATE = "sync-<upstream-short-sha>";
@@ -46,6 +77,21 @@ public class ConfigLoader {
     private static final int DEFAULT_LLM_INITIAL_BACKOFF_SECONDS = 2;
     private static final int DEFAULT_LLM_MAX_BACKOFF_SECONDS = 60;
     private static final double DEFAULT_LLM_RETRY_JITTER_FACTOR = 0.3;
+    private static final int DEFAULT_TRANSLATION_CONCURRENCY = 1;
+    private static final int DEFAULT_SEGMENT_CONCURRENCY = 1;
+    private static final int DEFAULT_LLM_REQUESTS_PER_MINUTE = 0;
+    private static final int DEFAULT_LLM_TOKENS_PER_MINUTE = 0;
+    private static final int DEFAULT_TRANSLATION_MEMORY_MAX_ENTRIES = 10_000;
+    private static final int DEFAULT_PARAGRAPH_MEMORY_MAX_ENTRIES = 50_000;
+    private static final int DEFAULT_TRANSLATION_BATCH_TOKEN_BUDGET = 0;
+    private static final int DEFAULT_TRANSLATION_SEGMENT_TOKEN_BUDGET = 0;
+    private static final int DEFAULT_PLANNING_CONCURRENCY = 1;
+    private static final int DEFAULT_TRANSLATION_DECISION_MAX_TOKENS = 0;
+    private static final int DEFAULT_DECISION_MEMORY_MAX_ENTRIES = 10_000;
+    private static final int DEFAULT_GIT_CLONE_DEPTH = 0;
+    private static final int DEFAULT_DIFF_RENAME_SCORE = 0;
+    private static final int DEFAULT_CATCH_UP_MAX_COMMITS = 0;
+    private static final int DEFAULT_CATCH_UP_MAX_FILES = 0;
 
     private final EnvironmentReader environmentReader;
 
@@ -135,6 +181,137 @@ public class ConfigLoader {
                 .map(ConfigLoader::parseDouble)
                 .orElse(DEFAULT_LLM_RETRY_JITTER_FACTOR);
 
+        int translationConcurrency = environmentReader.get(ENV_TRANSLATION_CONCURRENCY)
+                .filter(ConfigLoader::isNotBlank)
+                .map(String::trim)
+                .map(ConfigLoader::parsePositiveInteger)
+                .orElse(DEFAULT_TRANSLATION_CONCURRENCY);
+
+        int segmentConcurrency = environmentReader.get(ENV_TRANSLATION_SEGMENT_CONCURRENCY)
+                .filter(ConfigLoader::isNotBlank)
+                .map(String::trim)
+                .map(ConfigLoader::parsePositiveInteger)
+                .orElse(DEFAULT_SEGMENT_CONCURRENCY);
+
+        int llmRequestsPerMinute = environmentReader.get(ENV_LLM_REQUESTS_PER_MINUTE)
+                .filter(ConfigLoader::isNotBlank)
+                .map(String::trim)
+                .map(ConfigLoader::parsePositiveInteger)
+                .orElse(DEFAULT_LLM_REQUESTS_PER_MINUTE);
+
+        int llmTokensPerMinute = environmentReader.get(ENV_LLM_TOKENS_PER_MINUTE)
+                .filter(ConfigLoader::isNotBlank)
+                .map(String::trim)
+                .map(ConfigLoader::parsePositiveInteger)
+                .orElse(DEFAULT_LLM_TOKENS_PER_MINUTE);
+
+        Path cacheDirectory = environmentReader.get(ENV_CACHE_DIR)
+                .filter(ConfigLoader::isNotBlank)
+                .map(String::trim)
+                .map(Path::of)
+                .orElse(Config.defaultCacheDirectory());
+
+        int translationMemoryMaxEntries = environmentReader.get(ENV_TRANSLATION_MEMORY_MAX_ENTRIES)
+                .filter(ConfigLoader::isNotBlank)
+                .map(String::trim)
+                .map(ConfigLoader::parsePositiveInteger)
+                .orElse(DEFAULT_TRANSLATION_MEMORY_MAX_ENTRIES);
+
+        int paragraphMemoryMaxEntries = environmentReader.get(ENV_PARAGRAPH_MEMORY_MAX_ENTRIES)
+                .filter(ConfigLoader::isNotBlank)
+                .map(String::trim)
+                .map(ConfigLoader::parsePositiveInteger)
+                .orElse(DEFAULT_PARAGRAPH_MEMORY_MAX_ENTRIES);
+
+        int translationBatchTokenBudget = environmentReader.get(ENV_TRANSLATION_BATCH_TOKEN_BUDGET)
+                .filter(ConfigLoader::isNotBlank)
+                .map(String::trim)
+                .map(ConfigLoader::parsePositiveInteger)
+                .orElse(DEFAULT_TRANSLATION_BATCH_TOKEN_BUDGET);
+
+        boolean llmStreaming = environmentReader.get(ENV_LLM_STREAMING)
+                .map(String::trim)
+                .map(ConfigLoader::isEnabledFlag)
+                .orElse(false);
+
+        int translationSegmentTokenBudget = environmentReader.get(ENV_TRANSLATION_SEGMENT_TOKEN_BUDGET)
+                .filter(ConfigLoader::isNotBlank)
+                .map(String::trim)
+                .map(ConfigLoader::parsePositiveInteger)
+                .orElse(DEFAULT_TRANSLATION_SEGMENT_TOKEN_BUDGET);
+
+        int planningConcurrency = environmentReader.get(ENV_PLANNING_CONCURRENCY)
+                .filter(ConfigLoader::isNotBlank)
+                .map(String::trim)
+                .map(ConfigLoader::parsePositiveInteger)
+                .orElse(DEFAULT_PLANNING_CONCURRENCY);
+
+        DecisionPromptMode translationDecisionPrompt = environmentReader.get(ENV_TRANSLATION_DECISION_PROMPT)
+                .filter(ConfigLoader::isNotBlank)
+                .map(DecisionPromptMode::from)
+                .orElse(DecisionPromptMode.FULL);
+
+        int translationDecisionMaxTokens = environmentReader.get(ENV_TRANSLATION_DECISION_MAX_TOKENS)
+                .filter(ConfigLoader::isNotBlank)
+                .map(String::trim)
+                .map(ConfigLoader::parsePositiveInteger)
+                .orElse(DEFAULT_TRANSLATION_DECISION_MAX_TOKENS);
+
+        int decisionMemoryMaxEntries = environmentReader.get(ENV_DECISION_MEMORY_MAX_ENTRIES)
+                .filter(ConfigLoader::isNotBlank)
+                .map(String::trim)
+                .map(ConfigLoader::parsePositiveInteger)
+                .orElse(DEFAULT_DECISION_MEMORY_MAX_ENTRIES);
+
+        PlannerMode agentPlanner = environmentReader.get(ENV_AGENT_PLANNER)
+                .filter(ConfigLoader::isNotBlank)
+                .map(PlannerMode::from)
+                .orElse(PlannerMode.FAST);
+
+        boolean gitReuseWorkspace = environmentReader.get(ENV_GIT_REUSE_WORKSPACE)
+                .map(String::trim)
+                .map(ConfigLoader::isEnabledFlag)
+                .orElse(false);
+
+        int gitCloneDepth = environmentReader.get(ENV_GIT_CLONE_DEPTH)
+                .filter(ConfigLoader::isNotBlank)
+                .map(String::trim)
+                .map(ConfigLoader::parsePositiveInteger)
+                .orElse(DEFAULT_GIT_CLONE_DEPTH);
+
+        Optional<Instant> gitShallowSince = environmentReader.get(ENV_GIT_SHALLOW_SINCE)
+                .filter(ConfigLoader::isNotBlank)
+                .map(String::trim)
+                .map(ConfigLoader::parseInstant);
+
+        boolean gitSharedObjects = environmentReader.get(ENV_GIT_SHARED_OBJECTS)
+                .map(String::trim)
+                .map(ConfigLoader::isEnabledFlag)
+                .orElse(false);
+
+        MergeDiffMode mergeDiffMode = environmentReader.get(ENV_MERGE_DIFF_MODE)
+                .filter(ConfigLoader::isNotBlank)
+                .map(MergeDiffMode::from)
+                .orElse(MergeDiffMode.WORKING_TREE);
+
+        int diffRenameScore = environmentReader.get(ENV_DIFF_RENAME_SCORE)
+                .filter(ConfigLoader::isNotBlank)
+                .map(String::trim)
+                .map(ConfigLoader::parsePositiveInteger)
+                .orElse(DEFAULT_DIFF_RENAME_SCORE);
+
+        int catchUpMaxCommits = environmentReader.get(ENV_CATCH_UP_MAX_COMMITS)
+                .filter(ConfigLoader::isNotBlank)
+                .map(String::trim)
+                .map(ConfigLoader::parsePositiveInteger)
+                .orElse(DEFAULT_CATCH_UP_MAX_COMMITS);
+
+        int catchUpMaxFiles = environmentReader.get(ENV_CATCH_UP_MAX_FILES)
+                .filter(ConfigLoader::isNotBlank)
+                .map(String::trim)
+                .map(ConfigLoader::parsePositiveInteger)
+                .orElse(DEFAULT_CATCH_UP_MAX_FILES);
+
         if (!dryRun && githubToken.isEmpty()) {
             throw new IllegalStateException("GITHUB_TOKEN must be provided unless running in dry-run mode");
         }
@@ -144,7 +321,13 @@ public class ConfigLoader {
 
         return new Config(mode, upstreamUrl, originUrl, originBranch, translationBranchTemplate, since, dryRun,
                 translationMode, logFormat, translatorConfig, secrets, translationTargetSha, maxFilesPerRun, includePaths, documentExtensions,
-                llmMaxRetryAttempts, llmInitialBackoffSeconds, llmMaxBackoffSeconds, llmRetryJitterFactor);
+                llmMaxRetryAttempts, llmInitialBackoffSeconds, llmMaxBackoffSeconds, llmRetryJitterFactor,
+                translationConcurrency, segmentConcurrency, llmRequestsPerMinute, llmTokensPerMinute,
+                cacheDirectory, translationMemoryMaxEntries, paragraphMemoryMaxEntries, translationBatchTokenBudget,
+                llmStreaming, translationSegmentTokenBudget, planningConcurrency, translationDecisionPrompt,
+                translationDecisionMaxTokens, decisionMemoryMaxEntries, agentPlanner,
+                gitReuseWorkspace, gitCloneDepth, gitShallowSince, gitSharedObjects, mergeDiffMode,
+                diffRenameScore, catchUpMaxCommits, catchUpMaxFiles);
     }
 
     private String defaultModelFor(LlmProvider provider) {
@@ -170,10 +353,14 @@ public class ConfigLoader {
         }
         return environmentReader.get(ENV_DRY_RUN)
                 .map(String::trim)
-                .map(value -> value.equalsIgnoreCase("true") || value.equals("1"))
+                .map(ConfigLoader::isEnabledFlag)
                 .orElse(false);
     }
 
+    private static boolean isEnabledFlag(String value) {
+        return value.equalsIgnoreCase("true") || value.equals("1");
+    }
+
     private TranslationMode resolveTranslationMode(CliArguments arguments, boolean dryRun) {
         TranslationMode cliMode = arguments.translationMode();
         if (cliMode != null) {
@@ -218,6 +405,19 @@ public class ConfigLoader {
         }
     }
 
+    /**
+     * Accepts an ISO-8601 date ({@code 2024-01-31}, start of day in UTC) or instant ({@code 2024-01-31T12:00:00Z}).
+     */
+    private static Instant parseInstant(String raw) {
+        try {
+            return raw.length() == 10
+                    ? LocalDate.parse(raw).atStartOfDay(ZoneOffset.UTC).toInstant()
+                    : OffsetDateTime.parse(raw).toInstant();
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException(ENV_GIT_SHALLOW_SINCE + " must be an ISO-8601 date or date-time", ex);
+        }
+    }
+
     private URI resolveUri(URI cliValue, String envKey, String errorMessage) {
         if (cliValue != null) {
             return cliValue;
@@ -0,0 +1,23 @@
+package ai.docsite.translator.config;
+
+/**
+ * Selects how the run plan (whether to translate and whether to prepare a pull request) is decided.
+ */
+public enum PlannerMode {
+    /** Derives the plan directly from the configuration and the diff. */
+    FAST,
+    /** Asks the LangChain4j agent for the plan. */
+    AGENT;
+
+    public static PlannerMode from(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return FAST;
+        }
+        for (PlannerMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(raw.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported agent planner: " + raw);
+    }
+}
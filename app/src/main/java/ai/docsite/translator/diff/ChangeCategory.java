@@ -6,7 +6,9 @@ package ai.docsite.translator.diff;
 public enum ChangeCategory {
     DOCUMENT_NEW("a"),
     DOCUMENT_UPDATED("b"),
-    NON_DOCUMENT("c");
+    NON_DOCUMENT("c"),
+    /** Document moved or copied from another document path whose translation can be carried over. */
+    DOCUMENT_RENAMED("d");
 
     private final String label;
 
@@ -2,14 +2,23 @@ package ai.docsite.translator.diff;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.ContentSource;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.DiffEntry.ChangeType;
+import org.eclipse.jgit.diff.RenameDetector;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.NullProgressMonitor;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.ObjectReader;
 import org.eclipse.jgit.lib.Repository;
@@ -17,6 +26,10 @@ import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.treewalk.AbstractTreeIterator;
 import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.eclipse.jgit.treewalk.FileTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.WorkingTreeIterator;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
 
 /**
  * Performs diff analysis between two commits and classifies file changes for downstream processing.
@@ -26,13 +39,33 @@ public class DiffAnalyzer {
     private static final Set<String> DEFAULT_DOCUMENT_EXTENSIONS = Set.of("md", "mdx", "txt", "html");
 
     private final Set<String> documentExtensions;
+    private final int renameScore;
 
     public DiffAnalyzer() {
         this(DEFAULT_DOCUMENT_EXTENSIONS);
     }
 
     public DiffAnalyzer(Set<String> documentExtensions) {
+        this(documentExtensions, 0);
+    }
+
+    /**
+     * @param renameScore minimum similarity in percent for a deleted and an added file to be reported as one
+     *                    rename or copy; 0 disables rename detection
+     */
+    public DiffAnalyzer(Set<String> documentExtensions, int renameScore) {
         this.documentExtensions = Objects.requireNonNull(documentExtensions, "documentExtensions");
+        if (renameScore < 0 || renameScore > 100) {
+            throw new IllegalArgumentException("renameScore must be between 0 and 100");
+        }
+        this.renameScore = renameScore;
+    }
+
+    /**
+     * Returns an analyzer with the same document extensions that detects renames at {@code renameScore}.
+     */
+    public DiffAnalyzer withRenameScore(int renameScore) {
+        return renameScore == this.renameScore ? this : new DiffAnalyzer(documentExtensions, renameScore);
     }
 
     public DiffMetadata analyze(Repository repository, ObjectId baseCommit, ObjectId headCommit) {
@@ -56,12 +89,106 @@ public class DiffAnalyzer {
         try (Git git = Git.wrap(repository)) {
             CanonicalTreeParser baseTree = prepareTreeParser(repository, baseCommit);
             FileTreeIterator workingTree = new FileTreeIterator(repository);
-            return buildMetadata(git, baseTree, workingTree);
+            List<DiffEntry> entries = diff(git, baseTree, workingTree, TreeFilter.ALL);
+            return toMetadata(detectRenames(repository, entries, new FileTreeIterator(repository)));
         } catch (GitAPIException | IOException e) {
             throw new DiffAnalysisException("Failed to analyze working tree diff", e);
         }
     }
 
+    /**
+     * Derives the changes a conflicted merge left in the working tree without reading the working tree. Only
+     * paths touched between {@code mergeBase} and {@code mergedCommit}, plus the conflicting paths, can differ
+     * from {@code baseCommit} after the merge, so those paths are compared between {@code baseCommit} and
+     * {@code mergedCommit}.
+     *
+     * @param mergeBase        common ancestor of both sides, or {@code null} to compare every path
+     * @param conflictingPaths paths reported as conflicting by the merge
+     */
+    public DiffMetadata analyzeMerge(Repository repository, ObjectId baseCommit, ObjectId mergeBase,
+                                     ObjectId mergedCommit, Collection<String> conflictingPaths) {
+        Objects.requireNonNull(repository, "repository");
+        Objects.requireNonNull(baseCommit, "baseCommit");
+        Objects.requireNonNull(mergedCommit, "mergedCommit");
+        Objects.requireNonNull(conflictingPaths, "conflictingPaths");
+
+        try (Git git = Git.wrap(repository)) {
+            TreeFilter filter = TreeFilter.ALL;
+            if (mergeBase != null) {
+                Set<String> touchedPaths = new HashSet<>(conflictingPaths);
+                for (DiffEntry entry : diff(git, prepareTreeParser(repository, mergeBase),
+                        prepareTreeParser(repository, mergedCommit), TreeFilter.ALL)) {
+                    if (entry.getChangeType() != ChangeType.ADD) {
+                        touchedPaths.add(entry.getOldPath());
+                    }
+                    if (entry.getChangeType() != ChangeType.DELETE) {
+                        touchedPaths.add(entry.getNewPath());
+                    }
+                }
+                if (touchedPaths.isEmpty()) {
+                    return DiffMetadata.empty();
+                }
+                filter = PathFilterGroup.createFromStrings(touchedPaths);
+            }
+            return toMetadata(detectRenames(repository, diff(git, prepareTreeParser(repository, baseCommit),
+                    prepareTreeParser(repository, mergedCommit), filter), null));
+        } catch (GitAPIException | IOException e) {
+            throw new DiffAnalysisException("Failed to analyze merge diff", e);
+        }
+    }
+
+    /**
+     * Records the blob ids each document change has in the upstream source at {@code baseSourceCommit} and
+     * {@code newSourceCommit}, resolved with one walk over both trees. A renamed document is looked up at its
+     * previous path in the base commit.
+     */
+    public DiffMetadata attachSourceBlobs(Repository repository, DiffMetadata metadata,
+                                          ObjectId baseSourceCommit, ObjectId newSourceCommit) {
+        Objects.requireNonNull(repository, "repository");
+        Objects.requireNonNull(metadata, "metadata");
+        Objects.requireNonNull(baseSourceCommit, "baseSourceCommit");
+        Objects.requireNonNull(newSourceCommit, "newSourceCommit");
+
+        List<FileChange> documents = metadata.changes().stream()
+                .filter(change -> change.category() != ChangeCategory.NON_DOCUMENT)
+                .toList();
+        if (documents.isEmpty()) {
+            return metadata;
+        }
+        Set<String> paths = new HashSet<>();
+        for (FileChange change : documents) {
+            paths.add(change.path());
+            change.previousPath().ifPresent(paths::add);
+        }
+
+        Map<String, String> baseIds = new HashMap<>();
+        Map<String, String> newIds = new HashMap<>();
+        try (RevWalk walk = new RevWalk(repository); TreeWalk treeWalk = new TreeWalk(repository)) {
+            treeWalk.addTree(walk.parseCommit(baseSourceCommit).getTree());
+            treeWalk.addTree(walk.parseCommit(newSourceCommit).getTree());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(PathFilterGroup.createFromStrings(paths));
+            while (treeWalk.next()) {
+                if (treeWalk.getFileMode(0).getObjectType() == Constants.OBJ_BLOB) {
+                    baseIds.put(treeWalk.getPathString(), treeWalk.getObjectId(0).name());
+                }
+                if (treeWalk.getFileMode(1).getObjectType() == Constants.OBJ_BLOB) {
+                    newIds.put(treeWalk.getPathString(), treeWalk.getObjectId(1).name());
+                }
+            }
+        } catch (IOException e) {
+            throw new DiffAnalysisException("Failed to resolve source blobs", e);
+        }
+
+        Map<String, SourceBlobs> sourceBlobs = new HashMap<>();
+        for (FileChange change : documents) {
+            sourceBlobs.put(change.path(), new SourceBlobs(
+                    Optional.ofNullable(baseIds.get(change.previousPath().orElse(change.path()))),
+                    Optional.ofNullable(newIds.get(change.path()))));
+        }
+        return new DiffMetadata(metadata.changes(), sourceBlobs);
+    }
+
     private CanonicalTreeParser prepareTreeParser(Repository repository, ObjectId commitId) throws IOException {
         try (RevWalk walk = new RevWalk(repository); ObjectReader reader = repository.newObjectReader()) {
             CanonicalTreeParser treeParser = new CanonicalTreeParser();
@@ -71,19 +198,50 @@ public class DiffAnalyzer {
     }
 
     private DiffMetadata buildMetadata(Git git, CanonicalTreeParser baseTree, AbstractTreeIterator newTree)
+            throws GitAPIException, IOException {
+        return toMetadata(detectRenames(git.getRepository(), diff(git, baseTree, newTree, TreeFilter.ALL), null));
+    }
+
+    /**
+     * Pairs deleted and added files into renames and copies when rename detection is enabled.
+     *
+     * @param workingTree source of the new file contents when they are not stored in the repository yet
+     */
+    private List<DiffEntry> detectRenames(Repository repository, List<DiffEntry> entries, WorkingTreeIterator workingTree)
+            throws GitAPIException, IOException {
+        if (renameScore == 0 || entries.isEmpty()) {
+            return entries;
+        }
+        RenameDetector detector = new RenameDetector(repository);
+        detector.setRenameScore(renameScore);
+        detector.addAll(entries);
+        try (ObjectReader reader = repository.newObjectReader()) {
+            ContentSource objects = ContentSource.create(reader);
+            ContentSource newSource = workingTree == null ? objects : ContentSource.create(workingTree);
+            return detector.compute(new ContentSource.Pair(objects, newSource), NullProgressMonitor.INSTANCE);
+        }
+    }
+
+    private List<DiffEntry> diff(Git git, CanonicalTreeParser baseTree, AbstractTreeIterator newTree, TreeFilter filter)
             throws GitAPIException {
-        List<DiffEntry> entries = git.diff()
+        return git.diff()
                 .setOldTree(baseTree)
                 .setNewTree(newTree)
+                .setPathFilter(filter)
                 .setShowNameAndStatusOnly(true)
                 .call();
+    }
 
+    private DiffMetadata toMetadata(List<DiffEntry> entries) {
         List<FileChange> changes = new ArrayList<>();
         for (DiffEntry entry : entries) {
             ChangeCategory category = categorize(entry);
             if (category != null) {
                 String path = resolvePath(entry);
-                changes.add(new FileChange(path, category));
+                Optional<String> previousPath = category == ChangeCategory.DOCUMENT_RENAMED
+                        ? Optional.of(entry.getOldPath())
+                        : Optional.empty();
+                changes.add(new FileChange(path, category, previousPath));
             }
         }
         return new DiffMetadata(changes);
@@ -99,6 +257,12 @@ public class DiffAnalyzer {
             if (type == ChangeType.ADD) {
                 return ChangeCategory.DOCUMENT_NEW;
             }
+            if (type == ChangeType.RENAME || type == ChangeType.COPY) {
+                // a translation only exists for documents, so a file that just became one is new
+                return documentExtensions.contains(extensionOf(entry.getOldPath()))
+                        ? ChangeCategory.DOCUMENT_RENAMED
+                        : ChangeCategory.DOCUMENT_NEW;
+            }
             return ChangeCategory.DOCUMENT_UPDATED;
         }
         return ChangeCategory.NON_DOCUMENT;
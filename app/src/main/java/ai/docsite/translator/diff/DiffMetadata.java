@@ -3,6 +3,8 @@ package ai.docsite.translator.diff;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -11,9 +13,18 @@ import java.util.stream.Collectors;
 public class DiffMetadata {
 
     private final List<FileChange> changes;
+    private final Map<String, SourceBlobs> sourceBlobs;
 
     public DiffMetadata(List<FileChange> changes) {
+        this(changes, Map.of());
+    }
+
+    /**
+     * @param sourceBlobs upstream blob ids of the changed documents keyed by {@link FileChange#path()}
+     */
+    public DiffMetadata(List<FileChange> changes, Map<String, SourceBlobs> sourceBlobs) {
         this.changes = Collections.unmodifiableList(new ArrayList<>(changes));
+        this.sourceBlobs = Map.copyOf(sourceBlobs);
     }
 
     public static DiffMetadata empty() {
@@ -29,4 +40,18 @@ public class DiffMetadata {
                 .filter(change -> change.category() == category)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Returns the upstream blob ids recorded for {@code path} during diff analysis, if any.
+     */
+    public Optional<SourceBlobs> sourceBlobs(String path) {
+        return Optional.ofNullable(sourceBlobs.get(path));
+    }
+
+    /**
+     * Returns metadata with the given subset of changes that keeps the recorded blob ids.
+     */
+    public DiffMetadata withChanges(List<FileChange> changes) {
+        return new DiffMetadata(changes, sourceBlobs);
+    }
 }
@@ -1,14 +1,22 @@
 package ai.docsite.translator.diff;
 
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Represents a single file change and its classified category.
+ *
+ * @param previousPath path the file was renamed or copied from, when rename detection matched it
  */
-public record FileChange(String path, ChangeCategory category) {
+public record FileChange(String path, ChangeCategory category, Optional<String> previousPath) {
 
     public FileChange {
         Objects.requireNonNull(path, "path");
         Objects.requireNonNull(category, "category");
+        previousPath = previousPath == null ? Optional.empty() : previousPath;
+    }
+
+    public FileChange(String path, ChangeCategory category) {
+        this(path, category, Optional.empty());
     }
 }
@@ -0,0 +1,26 @@
+package ai.docsite.translator.diff;
+
+import java.util.Locale;
+
+/**
+ * Selects how file changes are collected after a merge that stopped with conflicts.
+ */
+public enum MergeDiffMode {
+    /** Compares the base commit with the merged working tree, hashing every file on disk. */
+    WORKING_TREE,
+    /** Derives the changes from the merge conflicts and tree diffs of the merged commits. */
+    MERGE_RESULT;
+
+    public static MergeDiffMode from(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return WORKING_TREE;
+        }
+        String normalized = raw.trim().replace('-', '_').toUpperCase(Locale.ROOT);
+        for (MergeDiffMode mode : values()) {
+            if (mode.name().equals(normalized)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported merge diff mode: " + raw);
+    }
+}
@@ -0,0 +1,23 @@
+package ai.docsite.translator.diff;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Git blob ids of a changed document in the upstream source at the base and the target commit. A document
+ * absent from one of the commits has no id there.
+ */
+public record SourceBlobs(Optional<String> baseBlobId, Optional<String> newBlobId) {
+
+    public SourceBlobs {
+        baseBlobId = Objects.requireNonNullElse(baseBlobId, Optional.empty());
+        newBlobId = Objects.requireNonNullElse(newBlobId, Optional.empty());
+    }
+
+    /**
+     * Returns whether both versions are known and identical, so the source did not change at all.
+     */
+    public boolean unchanged() {
+        return baseBlobId.isPresent() && baseBlobId.equals(newBlobId);
+    }
+}
@@ -6,31 +6,42 @@ import ai.docsite.translator.diff.ChangeCategory;
 import ai.docsite.translator.diff.DiffAnalyzer;
 import ai.docsite.translator.diff.DiffMetadata;
 import ai.docsite.translator.diff.FileChange;
+import ai.docsite.translator.diff.MergeDiffMode;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.eclipse.jgit.api.CloneCommand;
 import org.eclipse.jgit.api.CreateBranchCommand.SetupUpstreamMode;
+import org.eclipse.jgit.api.FetchCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.MergeCommand;
 import org.eclipse.jgit.api.MergeResult;
+import org.eclipse.jgit.api.ResetCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.RefNotFoundException;
 import org.eclipse.jgit.lib.AbbreviatedObjectId;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.lib.StoredConfig;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,6 +52,9 @@ public class GitWorkflowService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(GitWorkflowService.class);
     private static final String UPSTREAM_MAIN_BRANCH = "main";
+    private static final int INITIAL_DEEPEN_DEPTH = 50;
+    private static final int DEEPEN_FACTOR = 4;
+    private static final int MAX_DEEPEN_DEPTH = 10_000;
 
     private final Path workspaceRoot;
     private final DiffAnalyzer diffAnalyzer;
@@ -58,15 +72,22 @@ public class GitWorkflowService {
         Objects.requireNonNull(config, "config");
         try {
             Files.createDirectories(workspaceRoot);
-            Path upstreamDir = cloneFresh(config, config.upstreamUrl(), "upstream");
-            Path originDir = cloneFresh(config, config.originUrl(), "origin");
+            // only upstream main is ever merged or read, so no other upstream branch is transferred
+            PreparedClone upstreamClone = prepareClone(config, config.upstreamUrl(), "upstream",
+                    Optional.of(UPSTREAM_MAIN_BRANCH), Optional.empty(), true);
+            Path upstreamDir = upstreamClone.directory();
+            // a reused origin clone may only keep borrowing objects from an upstream clone that was reused as well
+            Optional<Path> sharedObjects = config.gitSharedObjects() ? Optional.of(upstreamDir) : Optional.empty();
+            Path originDir = prepareClone(config, config.originUrl(), "origin", Optional.empty(), sharedObjects,
+                    sharedObjects.isEmpty() || upstreamClone.reused()).directory();
 
             try (Git origin = Git.open(originDir.toFile())) {
                 ensureBaseBranchCheckedOut(origin, config.originBranch());
                 configureUpstreamRemote(origin, upstreamDir.toUri());
 
-                ObjectId upstreamHead = fetchUpstreamHead(origin, UPSTREAM_MAIN_BRANCH);
+                ObjectId upstreamHead = fetchUpstreamHead(config, origin, UPSTREAM_MAIN_BRANCH);
                 ObjectId originHead = resolveRequired(origin.getRepository(), "refs/heads/" + config.originBranch());
+                ensureMergeBase(config, upstreamDir, origin, upstreamHead, originHead);
 
                 List<RevCommit> pendingCommits = findPendingUpstreamCommits(origin.getRepository(), upstreamHead, originHead);
                 if (pendingCommits.isEmpty()) {
@@ -74,7 +95,8 @@ public class GitWorkflowService {
                     return GitWorkflowResult.empty(upstreamDir, originDir, originHead.getName());
                 }
 
-                RevCommit targetCommit = selectTargetCommit(config, pendingCommits);
+                RevCommit targetCommit = selectTargetCommit(config, origin.getRepository(), pendingCommits,
+                        upstreamHead, originHead);
                 AbbreviatedObjectId shortId = targetCommit.abbreviate(7);
                 String branchName = config.translationBranchTemplate().replace("<upstream-short-sha>", shortId.name());
 
@@ -90,10 +112,14 @@ public class GitWorkflowService {
 
                 ObjectId translationHead = resolveRequired(origin.getRepository(), "refs/heads/" + branchName);
                 ObjectId baseUpstreamCommit = findBaseUpstreamCommit(origin.getRepository(), targetCommit, originHead);
-                DiffMetadata metadata = mergeResult.getMergeStatus().isSuccessful()
-                        ? diffAnalyzer.analyze(origin.getRepository(), originHead, translationHead)
-                        : diffAnalyzer.analyzeWorkingTree(origin.getRepository(), originHead);
+                List<FileChange> upstreamRenames = findUpstreamRenames(config, origin.getRepository(),
+                        baseUpstreamCommit, targetCommit);
+                Set<String> movedPaths = removeMovedDocuments(origin, upstreamRenames, targetCommit);
+                DiffMetadata metadata = analyzeMerge(config, origin.getRepository(), mergeResult, originHead,
+                        translationHead, targetCommit);
+                metadata = applyUpstreamRenames(metadata, upstreamRenames, movedPaths);
                 metadata = filterMetadata(metadata, config);
+                metadata = attachSourceBlobs(origin.getRepository(), metadata, baseUpstreamCommit, targetCommit);
 
                 return new GitWorkflowResult(upstreamDir, originDir, branchName, targetCommit.getName(), shortId.name(),
                         baseUpstreamCommit.getName(), originHead.getName(), metadata, mergeResult.getMergeStatus());
@@ -103,20 +129,348 @@ public class GitWorkflowService {
         }
     }
 
-    private Path cloneFresh(Config config, URI uri, String prefix) throws GitAPIException, IOException {
+    /**
+     * Diffs the merged tree against origin. Renames are not detected here: origin holds the translation of a
+     * document while upstream holds its English source, so the two never look alike. They come from
+     * {@link #findUpstreamRenames} instead.
+     */
+    private DiffMetadata analyzeMerge(Config config, Repository repository, MergeResult mergeResult,
+                                      ObjectId originHead, ObjectId translationHead, RevCommit targetCommit)
+            throws IOException {
+        DiffAnalyzer diffAnalyzer = this.diffAnalyzer.withRenameScore(0);
+        if (mergeResult.getMergeStatus().isSuccessful()) {
+            return diffAnalyzer.analyze(repository, originHead, translationHead);
+        }
+        if (config.mergeDiffMode() == MergeDiffMode.MERGE_RESULT
+                && mergeResult.getMergeStatus() == MergeResult.MergeStatus.CONFLICTING
+                && mergeResult.getConflicts() != null) {
+            ObjectId mergeBase = mergeResult.getBase();
+            if (mergeBase == null) {
+                RevCommit found = findMergeBase(repository, originHead, targetCommit);
+                mergeBase = found == null ? null : found.getId();
+            }
+            return diffAnalyzer.analyzeMerge(repository, originHead, mergeBase, targetCommit,
+                    mergeResult.getConflicts().keySet());
+        }
+        return diffAnalyzer.analyzeWorkingTree(repository, originHead);
+    }
+
+    /**
+     * Detects the documents upstream renamed between {@code baseUpstreamCommit} and {@code targetCommit}, where
+     * both sides of a rename are English sources. Returns nothing when rename detection is disabled.
+     */
+    private List<FileChange> findUpstreamRenames(Config config, Repository repository, ObjectId baseUpstreamCommit,
+                                                 RevCommit targetCommit) {
+        if (config.diffRenameScore() == 0) {
+            return List.of();
+        }
+        return diffAnalyzer.withRenameScore(config.diffRenameScore())
+                .analyze(repository, baseUpstreamCommit, targetCommit)
+                .byCategory(ChangeCategory.DOCUMENT_RENAMED);
+    }
+
+    /**
+     * Removes the previous path of every document upstream moved from the translation branch. Origin still
+     * holds its translation there, which made the merge keep the file as a modify/delete conflict; the
+     * translation is carried over to the new path instead. Returns the removed previous paths, leaving copies
+     * whose source upstream kept alone.
+     */
+    private Set<String> removeMovedDocuments(Git origin, List<FileChange> upstreamRenames, RevCommit targetCommit)
+            throws IOException, GitAPIException {
+        Set<String> movedPaths = new HashSet<>();
+        Repository repository = origin.getRepository();
+        for (FileChange rename : upstreamRenames) {
+            String previousPath = rename.previousPath().orElseThrow();
+            try (TreeWalk existing = TreeWalk.forPath(repository, previousPath, targetCommit.getTree())) {
+                if (existing != null) {
+                    continue;
+                }
+            }
+            movedPaths.add(previousPath);
+            if (Files.exists(repository.getWorkTree().toPath().resolve(previousPath))) {
+                origin.rm().addFilepattern(previousPath).call();
+                LOGGER.info("Removed {} after upstream moved it to {}", previousPath, rename.path());
+            }
+        }
+        return movedPaths;
+    }
+
+    /**
+     * Reports documents that upstream renamed as renames of their previous path, and drops the removal of that
+     * previous path, which the rename already stands for.
+     */
+    private DiffMetadata applyUpstreamRenames(DiffMetadata metadata, List<FileChange> upstreamRenames,
+                                              Set<String> movedPaths) {
+        if (upstreamRenames.isEmpty()) {
+            return metadata;
+        }
+        Map<String, FileChange> renamesByPath = upstreamRenames.stream()
+                .collect(Collectors.toMap(FileChange::path, rename -> rename, (first, second) -> first));
+        Set<String> renamedPaths = metadata.changes().stream()
+                .map(FileChange::path)
+                .filter(renamesByPath::containsKey)
+                .collect(Collectors.toSet());
+        Set<String> coveredPaths = renamedPaths.stream()
+                .map(path -> renamesByPath.get(path).previousPath().orElseThrow())
+                .filter(movedPaths::contains)
+                .collect(Collectors.toSet());
+        List<FileChange> changes = new ArrayList<>();
+        for (FileChange change : metadata.changes()) {
+            if (coveredPaths.contains(change.path()) && change.category() != ChangeCategory.DOCUMENT_RENAMED) {
+                continue;
+            }
+            changes.add(renamedPaths.contains(change.path()) ? renamesByPath.get(change.path()) : change);
+        }
+        return metadata.withChanges(changes);
+    }
+
+    /**
+     * Records the upstream blob ids of the changed documents so planning does not resolve them again. The ids
+     * only save work, so a failure keeps the metadata without them.
+     */
+    private DiffMetadata attachSourceBlobs(Repository repository, DiffMetadata metadata, ObjectId baseUpstreamCommit,
+                                           ObjectId targetCommit) {
+        try {
+            return diffAnalyzer.attachSourceBlobs(repository, metadata, baseUpstreamCommit, targetCommit);
+        } catch (DiffAnalyzer.DiffAnalysisException ex) {
+            LOGGER.debug("Failed to resolve upstream blob ids of changed documents: {}", ex.getMessage());
+            return metadata;
+        }
+    }
+
+    /**
+     * @param singleBranch   the only branch to transfer, or empty for all branches
+     * @param sharedObjects  clone whose object database the new clone borrows through a JGit alternate
+     * @param mayReuse       whether an existing workspace clone may be refreshed instead of cloned again
+     */
+    private PreparedClone prepareClone(Config config, URI uri, String prefix, Optional<String> singleBranch,
+                                       Optional<Path> sharedObjects, boolean mayReuse)
+            throws GitAPIException, IOException {
+        if (!config.gitReuseWorkspace()) {
+            return new PreparedClone(cloneFresh(config, uri, prefix, singleBranch, sharedObjects), false);
+        }
+        Path directory = workspaceRoot.resolve(prefix);
+        if (mayReuse && isCloneOf(directory, uri) && borrowsFrom(directory, sharedObjects)) {
+            try {
+                refreshClone(directory);
+                LOGGER.info("Reusing workspace clone {}", directory);
+                return new PreparedClone(directory, true);
+            } catch (IOException | GitAPIException | RuntimeException ex) {
+                LOGGER.warn("Failed to refresh workspace clone {}, cloning again: {}", directory, ex.getMessage());
+            }
+        }
+        deleteRecursively(directory);
+        Files.createDirectories(directory);
+        clone(config, uri, directory, singleBranch, sharedObjects);
+        return new PreparedClone(directory, false);
+    }
+
+    private boolean borrowsFrom(Path directory, Optional<Path> sharedObjects) throws IOException {
+        if (sharedObjects.isEmpty()) {
+            return true;
+        }
+        Path alternates = directory.resolve(".git/objects/info/alternates");
+        return Files.isRegularFile(alternates)
+                && Files.readAllLines(alternates).contains(objectsDirectory(sharedObjects.get()).toString());
+    }
+
+    private static Path objectsDirectory(Path cloneDirectory) {
+        return cloneDirectory.resolve(".git").resolve("objects").toAbsolutePath().normalize();
+    }
+
+    private boolean isCloneOf(Path directory, URI uri) {
+        if (!Files.isDirectory(directory.resolve(".git"))) {
+            return false;
+        }
+        try (Git git = Git.open(directory.toFile())) {
+            return uri.toString().equals(git.getRepository().getConfig().getString("remote", "origin", "url"));
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Brings a clone from an earlier run to the state of a fresh clone: fetches incrementally with pruning,
+     * resets the branches that track a remote branch, drops every other local branch (translation branches of
+     * earlier runs) and cleans the working tree.
+     */
+    private void refreshClone(Path directory) throws IOException, GitAPIException {
+        try (Git git = Git.open(directory.toFile())) {
+            Repository repository = git.getRepository();
+            // also discards a conflicted merge left behind by an earlier run
+            git.reset().setMode(ResetCommand.ResetType.HARD).call();
+            git.fetch().setRemote("origin").setRemoveDeletedRefs(true).call();
+            String current = repository.getBranch();
+            ObjectId head = repository.resolve("HEAD");
+            if (head != null) {
+                // detach so that every local branch, including the checked out one, can be updated or removed
+                git.checkout().setForced(true).setName(head.getName()).call();
+            }
+            String keep = null;
+            for (Ref branch : git.branchList().call()) {
+                if (!branch.getName().startsWith(Constants.R_HEADS)) {
+                    // the list includes the detached HEAD
+                    continue;
+                }
+                String name = Repository.shortenRefName(branch.getName());
+                String merge = repository.getConfig().getString("branch", name, "merge");
+                Ref remote = merge == null ? null
+                        : repository.exactRef("refs/remotes/origin/" + Repository.shortenRefName(merge));
+                if (remote == null) {
+                    git.branchDelete().setBranchNames(branch.getName()).setForce(true).call();
+                    continue;
+                }
+                RefUpdate update = repository.updateRef(branch.getName());
+                update.setNewObjectId(remote.getObjectId());
+                update.setForceUpdate(true);
+                update.update();
+                if (name.equals(current) || keep == null) {
+                    keep = name;
+                }
+            }
+            if (keep != null) {
+                git.checkout().setForced(true).setName(keep).call();
+            }
+            git.reset().setMode(ResetCommand.ResetType.HARD).call();
+            git.clean().setCleanDirectories(true).setIgnore(false).setForce(true).call();
+        }
+    }
+
+    private Path cloneFresh(Config config, URI uri, String prefix, Optional<String> singleBranch,
+                            Optional<Path> sharedObjects) throws GitAPIException, IOException {
         Path directory = determineCloneDirectory(config.mode(), prefix);
         if (Files.exists(directory)) {
             deleteRecursively(directory);
         }
         Files.createDirectories(directory);
-        try (Git ignored = Git.cloneRepository()
+        clone(config, uri, directory, singleBranch, sharedObjects);
+        return directory;
+    }
+
+    private void clone(Config config, URI uri, Path directory, Optional<String> singleBranch,
+                       Optional<Path> sharedObjects) throws GitAPIException, IOException {
+        if (sharedObjects.isPresent()) {
+            cloneSharingObjects(config, uri, directory, sharedObjects.get());
+            return;
+        }
+        CloneCommand command = Git.cloneRepository()
                 .setURI(uri.toString())
-                .setDirectory(directory.toFile())
-                .setCloneAllBranches(true)
-                .call()) {
-            // clone closed via try-with-resources
+                .setDirectory(directory.toFile());
+        if (singleBranch.isPresent()) {
+            String branchRef = Constants.R_HEADS + singleBranch.get();
+            command.setCloneAllBranches(false)
+                    .setBranchesToClone(List.of(branchRef))
+                    .setBranch(branchRef);
+        } else {
+            command.setCloneAllBranches(true);
+        }
+        if (config.gitCloneDepth() > 0) {
+            command.setDepth(config.gitCloneDepth());
+        }
+        config.gitShallowSince().ifPresent(command::setShallowSince);
+        try (Git git = command.call()) {
+            if (singleBranch.isPresent()) {
+                // later fetches into a reused clone stay limited to the same branch
+                StoredConfig repositoryConfig = git.getRepository().getConfig();
+                repositoryConfig.setStringList("remote", "origin", "fetch", List.of(
+                        "+" + Constants.R_HEADS + singleBranch.get() + ":refs/remotes/origin/" + singleBranch.get()));
+                repositoryConfig.save();
+            }
+        }
+    }
+
+    /**
+     * Clones all branches of {@code uri} into {@code directory} with the object database of {@code sharedObjects}
+     * registered as an alternate. The fetch advertises the refs of that clone as already present, so history
+     * shared with it is neither transferred nor stored twice. Only {@link Config#originBranch()} is checked out,
+     * which is all the workflow uses.
+     */
+    private void cloneSharingObjects(Config config, URI uri, Path directory, Path sharedObjects)
+            throws GitAPIException, IOException {
+        Git.init().setDirectory(directory.toFile()).setInitialBranch(config.originBranch()).call().close();
+        // written before the repository is opened again so that its object database picks the alternate up
+        Path alternates = directory.resolve(".git/objects/info/alternates");
+        Files.createDirectories(alternates.getParent());
+        Files.writeString(alternates, objectsDirectory(sharedObjects) + "\n");
+        try (Git git = Git.open(directory.toFile())) {
+            Repository repository = git.getRepository();
+            StoredConfig repositoryConfig = repository.getConfig();
+            repositoryConfig.setString("remote", "origin", "url", uri.toString());
+            repositoryConfig.setStringList("remote", "origin", "fetch", List.of("+refs/heads/*:refs/remotes/origin/*"));
+            repositoryConfig.save();
+            git.fetch().setRemote("origin").call();
+
+            String branch = config.originBranch();
+            Ref remoteBranch = repository.exactRef("refs/remotes/origin/" + branch);
+            if (remoteBranch == null) {
+                return;
+            }
+            RefUpdate update = repository.updateRef(Constants.R_HEADS + branch);
+            update.setNewObjectId(remoteBranch.getObjectId());
+            update.update();
+            repositoryConfig.setString("branch", branch, "remote", "origin");
+            repositoryConfig.setString("branch", branch, "merge", Constants.R_HEADS + branch);
+            repositoryConfig.save();
+            git.reset().setMode(ResetCommand.ResetType.HARD).call();
+        }
+    }
+
+    /**
+     * Shallow clones may cut the history before the merge base of the upstream head and the origin branch,
+     * which commit selection and the merge rely on. Deepens both clones step by step, and finally fetches
+     * the complete history, until the merge base is reachable.
+     */
+    private void ensureMergeBase(Config config, Path upstreamDir, Git origin, ObjectId upstreamHead, ObjectId originHead)
+            throws IOException, GitAPIException {
+        if (config.gitCloneDepth() == 0 && config.gitShallowSince().isEmpty()) {
+            return;
+        }
+        Repository repository = origin.getRepository();
+        int depth = config.gitCloneDepth();
+        while (findMergeBase(repository, upstreamHead, originHead) == null) {
+            if (!isShallow(repository) && !isShallow(upstreamDir)) {
+                // unrelated histories; the regular fallbacks apply
+                return;
+            }
+            depth = depth == 0 ? INITIAL_DEEPEN_DEPTH : depth * DEEPEN_FACTOR;
+            int fetchDepth = depth > MAX_DEEPEN_DEPTH ? 0 : depth;
+            LOGGER.info("Merge base not within the shallow history; deepening clones to {}",
+                    fetchDepth == 0 ? "full history" : fetchDepth + " commits");
+            try (Git upstream = Git.open(upstreamDir.toFile())) {
+                deepen(upstream, "origin", fetchDepth);
+            }
+            deepen(origin, "origin", fetchDepth);
+            deepen(origin, "upstream", fetchDepth);
+        }
+    }
+
+    private void deepen(Git git, String remote, int depth) throws GitAPIException {
+        FetchCommand fetch = git.fetch().setRemote(remote);
+        if (depth > 0) {
+            fetch.setDepth(depth);
+        } else {
+            fetch.setUnshallow(true);
+        }
+        fetch.call();
+    }
+
+    private boolean isShallow(Path directory) throws IOException {
+        try (Git git = Git.open(directory.toFile())) {
+            return isShallow(git.getRepository());
+        }
+    }
+
+    private boolean isShallow(Repository repository) throws IOException {
+        return !repository.getObjectDatabase().getShallowCommits().isEmpty();
+    }
+
+    private RevCommit findMergeBase(Repository repository, ObjectId first, ObjectId second) throws IOException {
+        try (RevWalk walk = new RevWalk(repository)) {
+            walk.setRevFilter(org.eclipse.jgit.revwalk.filter.RevFilter.MERGE_BASE);
+            walk.markStart(walk.parseCommit(first));
+            walk.markStart(walk.parseCommit(second));
+            return walk.next();
         }
-        return directory;
     }
 
     private Path determineCloneDirectory(Mode mode, String prefix) throws IOException {
@@ -155,33 +509,42 @@ public class GitWorkflowService {
         }
     }
 
-    private void configureUpstreamRemote(Git origin, URI upstream) throws IOException, GitAPIException {
+    /**
+     * Points the {@code upstream} remote of the origin clone at the local upstream clone. Nothing is fetched here;
+     * {@link #fetchUpstreamHead} transfers the objects once.
+     */
+    private void configureUpstreamRemote(Git origin, URI upstream) throws IOException {
         Repository repository = origin.getRepository();
-        StoredConfig config = repository.getConfig();
-        config.setString("remote", "upstream", "url", upstream.toString());
-        config.setStringList("remote", "upstream", "fetch", List.of(
-                "+refs/heads/*:refs/remotes/upstream/*"
+        StoredConfig repositoryConfig = repository.getConfig();
+        repositoryConfig.setString("remote", "upstream", "url", upstream.toString());
+        repositoryConfig.setStringList("remote", "upstream", "fetch", List.of(
+                "+refs/heads/" + UPSTREAM_MAIN_BRANCH + ":refs/remotes/upstream/" + UPSTREAM_MAIN_BRANCH
         ));
-        config.save();
-        origin.fetch().setRemote("upstream").call();
+        repositoryConfig.save();
     }
 
-    private ObjectId fetchUpstreamHead(Git origin, String branch) throws GitAPIException, IOException {
-        origin.fetch().setRemote("upstream").call();
+    private ObjectId fetchUpstreamHead(Config config, Git origin, String branch) throws GitAPIException, IOException {
+        fetchUpstream(config, origin);
         return resolveRequired(origin.getRepository(), "refs/remotes/upstream/" + branch);
     }
 
+    /**
+     * Fetches from the upstream clone with the clone's own shallow limits; a shallow source repository does not
+     * tell the receiver where its history ends, so an unlimited fetch would leave parents missing.
+     */
+    private void fetchUpstream(Config config, Git origin) throws GitAPIException {
+        FetchCommand fetch = origin.fetch().setRemote("upstream");
+        if (config.gitCloneDepth() > 0) {
+            fetch.setDepth(config.gitCloneDepth());
+        }
+        config.gitShallowSince().ifPresent(fetch::setShallowSince);
+        fetch.call();
+    }
+
     private ObjectId findBaseUpstreamCommit(Repository repository, RevCommit targetCommit, ObjectId originHead) throws IOException {
-        try (RevWalk walk = new RevWalk(repository)) {
-            RevCommit originCommit = walk.parseCommit(originHead);
-            RevCommit upstreamCommit = walk.parseCommit(targetCommit);
-            walk.setRevFilter(org.eclipse.jgit.revwalk.filter.RevFilter.MERGE_BASE);
-            walk.markStart(upstreamCommit);
-            walk.markStart(originCommit);
-            RevCommit base = walk.next();
-            if (base != null) {
-                return base.getId();
-            }
+        RevCommit base = findMergeBase(repository, targetCommit, originHead);
+        if (base != null) {
+            return base.getId();
         }
         if (targetCommit.getParentCount() > 0) {
             return targetCommit.getParent(0).getId();
@@ -234,7 +597,7 @@ public class GitWorkflowService {
             filtered.add(change);
         }
 
-        return new DiffMetadata(filtered);
+        return metadata.withChanges(filtered);
     }
 
     private boolean isUnderIncludedPath(String path, List<String> includePaths) {
@@ -261,7 +624,8 @@ public class GitWorkflowService {
         return path.substring(idx).toLowerCase(Locale.ROOT);
     }
 
-    private RevCommit selectTargetCommit(Config config, List<RevCommit> pendingCommits) {
+    private RevCommit selectTargetCommit(Config config, Repository repository, List<RevCommit> pendingCommits,
+                                         ObjectId upstreamHead, ObjectId originHead) throws IOException {
         Optional<String> targetSha = config.translationTargetSha();
         if (targetSha.isPresent()) {
             String needle = targetSha.get().toLowerCase();
@@ -281,9 +645,97 @@ public class GitWorkflowService {
             }
         }
 
+        if (config.catchUpMaxCommits() > 0 || config.catchUpMaxFiles() > 0) {
+            return selectCatchUpTarget(config, repository, pendingCommits, upstreamHead, originHead);
+        }
+
         return pendingCommits.get(0);
     }
 
+    /**
+     * Picks the newest commit on the first-parent line of upstream main whose merge stays within the catch-up
+     * budget. Merging it brings in every older pending commit, and the documents changed across that range are
+     * translated once at their latest content. The oldest candidate is taken even when it alone exceeds the budget
+     * so that the backlog keeps moving.
+     *
+     * <p>Each candidate is only diffed against the previous one and the changed document paths are accumulated,
+     * so a long backlog costs one diff per step rather than one diff of the whole range per candidate. A document
+     * changed and later reverted within the range is still counted, which errs on the side of a smaller merge.</p>
+     */
+    private RevCommit selectCatchUpTarget(Config config, Repository repository, List<RevCommit> pendingCommits,
+                                          ObjectId upstreamHead, ObjectId originHead) throws IOException {
+        List<RevCommit> candidates = firstParentCandidates(repository, pendingCommits, upstreamHead);
+        if (candidates.isEmpty()) {
+            return pendingCommits.get(0);
+        }
+        int maxCommits = config.catchUpMaxCommits() > 0 ? config.catchUpMaxCommits() : Integer.MAX_VALUE;
+        int maxFiles = config.catchUpMaxFiles() > 0 ? config.catchUpMaxFiles() : Integer.MAX_VALUE;
+        DiffAnalyzer diffAnalyzer = this.diffAnalyzer.withRenameScore(config.diffRenameScore());
+
+        RevCommit selected = null;
+        int commits = 0;
+        Set<String> documents = new HashSet<>();
+        try (RevWalk walk = new RevWalk(repository)) {
+            for (RevCommit candidate : candidates) {
+                walk.reset();
+                walk.markStart(walk.parseCommit(candidate));
+                walk.markUninteresting(walk.parseCommit(originHead));
+                if (selected != null) {
+                    walk.markUninteresting(walk.parseCommit(selected));
+                }
+                int candidateCommits = commits;
+                for (RevCommit ignored : walk) {
+                    candidateCommits++;
+                }
+                Set<String> candidateDocuments = documents;
+                if (maxFiles != Integer.MAX_VALUE) {
+                    ObjectId from = selected != null ? selected : findBaseUpstreamCommit(repository, candidate, originHead);
+                    candidateDocuments = new HashSet<>(documents);
+                    candidateDocuments.addAll(changedDocuments(config, diffAnalyzer, repository, from, candidate));
+                }
+                if (selected != null && (candidateCommits > maxCommits || candidateDocuments.size() > maxFiles)) {
+                    break;
+                }
+                selected = candidate;
+                commits = candidateCommits;
+                documents = candidateDocuments;
+            }
+        }
+        LOGGER.info("Catching up {} of {} pending commits up to {} ({} documents changed)", commits,
+                pendingCommits.size(), selected.abbreviate(7).name(), documents.size());
+        return selected;
+    }
+
+    /**
+     * Returns the pending commits on the first-parent line of upstream main, oldest first.
+     */
+    private List<RevCommit> firstParentCandidates(Repository repository, List<RevCommit> pendingCommits,
+                                                  ObjectId upstreamHead) throws IOException {
+        Set<ObjectId> pending = new HashSet<>(pendingCommits);
+        List<RevCommit> candidates = new ArrayList<>();
+        try (RevWalk walk = new RevWalk(repository)) {
+            RevCommit commit = walk.parseCommit(upstreamHead);
+            while (pending.contains(commit)) {
+                candidates.add(commit);
+                if (commit.getParentCount() == 0) {
+                    break;
+                }
+                commit = walk.parseCommit(commit.getParent(0));
+            }
+        }
+        Collections.reverse(candidates);
+        return candidates;
+    }
+
+    private Set<String> changedDocuments(Config config, DiffAnalyzer diffAnalyzer, Repository repository,
+                                         ObjectId from, RevCommit to) throws IOException {
+        DiffMetadata metadata = filterMetadata(diffAnalyzer.analyze(repository, from, to), config);
+        return metadata.changes().stream()
+                .filter(change -> change.category() != ChangeCategory.NON_DOCUMENT)
+                .map(FileChange::path)
+                .collect(Collectors.toSet());
+    }
+
     private void checkoutTranslationBranch(Git origin, String baseBranch, String branchName) throws GitAPIException {
         origin.checkout()
                 .setName(baseBranch)
@@ -350,4 +802,7 @@ public class GitWorkflowService {
             }
         }
     }
+
+    private record PreparedClone(Path directory, boolean reused) {
+    }
 }
@@ -0,0 +1,229 @@
+package ai.docsite.translator.translate;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.EditList;
+
+/**
+ * Cheap local pre-filter for {@link TranslationDecisionService}. Classifies the edits between two versions of
+ * a document so that obvious cases never reach the LLM: whitespace, punctuation, link target and small spelling
+ * fixes are skipped, newly added prose is translated, and everything else is escalated.
+ *
+ * <p>Inside fenced code blocks only whitespace changes count as minor, since a changed identifier or operator
+ * has to be carried over into the translation. Elsewhere symbols such as operators, currency signs and table
+ * pipes, punctuation next to digits, and any change to numbers, versions or identifiers are significant too.</p>
+ */
+final class ChangeClassifier {
+
+    enum Verdict {
+        TRANSLATE,
+        SKIP,
+        ESCALATE
+    }
+
+    record Classification(Verdict verdict, String reason) {
+    }
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // punctuation between or next to digits is part of a number or version, as in -5, 3,000 or 2.3.1
+    private static final Pattern PUNCTUATION = Pattern.compile("(?<!\\p{N})\\p{P}(?!\\p{N})");
+    private static final Pattern SURROUNDING_PUNCTUATION = Pattern.compile("^(\\p{P}*)(.*?)(\\p{P}*)$");
+    private static final Pattern WORD = Pattern.compile("\\p{L}[\\p{Ll}\\p{Lo}\\p{Lm}]*");
+    private static final Pattern LINK_TARGET = Pattern.compile("\\]\\([^)\\s]*(?:\\s+\"[^\"]*\")?\\)|<(?:https?|mailto):[^>]*>|https?://\\S+");
+    private static final Pattern LETTER = Pattern.compile("\\p{L}");
+    private static final int MAX_TYPO_DISTANCE = 2;
+    private static final int MIN_TYPO_WORD_LENGTH = 4;
+
+    Classification classify(List<String> baseLines, List<String> newLines, EditList edits) {
+        return classify(baseLines, codeLines(baseLines), newLines, codeLines(newLines), edits);
+    }
+
+    /**
+     * Same as {@link #classify(List, List, EditList)} for blob texts: code fences are found on the raw bytes, so
+     * only the edited lines are ever decoded.
+     */
+    Classification classify(SourceText baseText, SourceText newText, EditList edits) {
+        return classify(baseText.lines(), baseText.fencedLines(), newText.lines(), newText.fencedLines(), edits);
+    }
+
+    private Classification classify(List<String> baseLines, boolean[] baseCode, List<String> newLines,
+                                    boolean[] newCode, EditList edits) {
+        if (baseLines.isEmpty()) {
+            return new Classification(Verdict.TRANSLATE, "new document");
+        }
+        if (edits.isEmpty()) {
+            return new Classification(Verdict.SKIP, "no changes");
+        }
+        boolean escalate = false;
+        boolean deletions = false;
+        String minorReason = null;
+        for (Edit edit : edits) {
+            if (edit.getType() == Edit.Type.DELETE) {
+                deletions = true;
+                continue;
+            }
+            List<String> before = baseLines.subList(edit.getBeginA(), edit.getEndA());
+            List<String> after = newLines.subList(edit.getBeginB(), edit.getEndB());
+            boolean touchesCode = anyCode(baseCode, edit.getBeginA(), edit.getEndA())
+                    || anyCode(newCode, edit.getBeginB(), edit.getEndB());
+            String reason = minorChange(before, after, touchesCode);
+            if (reason != null) {
+                minorReason = minorReason == null || minorReason.equals(reason) ? reason : "minor edits";
+                continue;
+            }
+            if (before.isEmpty() && containsLetters(after)) {
+                return new Classification(Verdict.TRANSLATE, "added content");
+            }
+            escalate = true;
+        }
+        if (minorReason == null) {
+            // removed lines never produce segments, so skipping keeps the outcome of planning unchanged
+            return escalate ? new Classification(Verdict.ESCALATE, "ambiguous changes")
+                    : new Classification(Verdict.SKIP, "deletions only");
+        }
+        if (escalate || deletions) {
+            // removals next to minor edits may be structural, and skipping would also drop their alignment
+            return new Classification(Verdict.ESCALATE, "ambiguous changes");
+        }
+        return new Classification(Verdict.SKIP, minorReason);
+    }
+
+    /**
+     * Returns why the edit is minor, or {@code null} when it may change the meaning.
+     */
+    private String minorChange(List<String> before, List<String> after, boolean touchesCode) {
+        String beforeText = String.join("\n", before);
+        String afterText = String.join("\n", after);
+        if (collapseWhitespace(beforeText).equals(collapseWhitespace(afterText))) {
+            return "whitespace only";
+        }
+        if (touchesCode) {
+            return null;
+        }
+        if (stripPunctuation(beforeText).equals(stripPunctuation(afterText))) {
+            return "punctuation only";
+        }
+        if (stripLinkTargets(beforeText).equals(stripLinkTargets(afterText))) {
+            return "link targets only";
+        }
+        if (before.size() == after.size() && isSpellingFix(before, after)) {
+            return "spelling fixes";
+        }
+        return null;
+    }
+
+    /**
+     * Every changed word must be a long-enough word within a small edit distance of its counterpart; word
+     * counts must match line by line, so inserted or removed words such as "not" are never treated as typos.
+     * Only plain words made of letters qualify: numbers, versions and identifiers such as {@code v17},
+     * {@code retry_count} or {@code maxRetries} always need a real decision.
+     */
+    private boolean isSpellingFix(List<String> before, List<String> after) {
+        for (int i = 0; i < before.size(); i++) {
+            String[] beforeWords = words(before.get(i));
+            String[] afterWords = words(after.get(i));
+            if (beforeWords.length != afterWords.length) {
+                return false;
+            }
+            for (int w = 0; w < beforeWords.length; w++) {
+                String from = beforeWords[w];
+                String to = afterWords[w];
+                if (from.equals(to)) {
+                    continue;
+                }
+                if (!isTypoCandidate(from, to)) {
+                    return false;
+                }
+                if (Math.min(from.length(), to.length()) < MIN_TYPO_WORD_LENGTH
+                        || editDistance(from, to) > MAX_TYPO_DISTANCE) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Both tokens must be plain words apart from identical leading and trailing punctuation.
+     */
+    private static boolean isTypoCandidate(String from, String to) {
+        Matcher fromParts = SURROUNDING_PUNCTUATION.matcher(from);
+        Matcher toParts = SURROUNDING_PUNCTUATION.matcher(to);
+        if (!fromParts.matches() || !toParts.matches()
+                || !fromParts.group(1).equals(toParts.group(1)) || !fromParts.group(3).equals(toParts.group(3))) {
+            return false;
+        }
+        return WORD.matcher(fromParts.group(2)).matches() && WORD.matcher(toParts.group(2)).matches();
+    }
+
+    private static String[] words(String line) {
+        String stripped = line.strip();
+        return stripped.isEmpty() ? new String[0] : WHITESPACE.split(stripped);
+    }
+
+    private static int editDistance(String left, String right) {
+        int[] previous = new int[right.length() + 1];
+        int[] current = new int[right.length() + 1];
+        for (int j = 0; j <= right.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= left.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= right.length(); j++) {
+                int substitution = previous[j - 1] + (left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[right.length()];
+    }
+
+    private static String collapseWhitespace(String text) {
+        return WHITESPACE.matcher(Normalizer.normalize(text, Normalizer.Form.NFKC)).replaceAll(" ").strip();
+    }
+
+    /**
+     * Removes punctuation but keeps word boundaries, so joining or splitting words is not a punctuation change.
+     */
+    private static String stripPunctuation(String text) {
+        return collapseWhitespace(PUNCTUATION.matcher(Normalizer.normalize(text, Normalizer.Form.NFKC)).replaceAll(""));
+    }
+
+    private static String stripLinkTargets(String text) {
+        return collapseWhitespace(LINK_TARGET.matcher(text).replaceAll("]()"));
+    }
+
+    /**
+     * Marks fence lines and the lines between them.
+     */
+    private static boolean[] codeLines(List<String> lines) {
+        boolean[] code = new boolean[lines.size()];
+        boolean open = false;
+        for (int i = 0; i < lines.size(); i++) {
+            boolean fence = lines.get(i).strip().startsWith("```");
+            code[i] = open || fence;
+            if (fence) {
+                open = !open;
+            }
+        }
+        return code;
+    }
+
+    private static boolean anyCode(boolean[] code, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (code[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsLetters(List<String> lines) {
+        return lines.stream().anyMatch(line -> LETTER.matcher(line).find());
+    }
+}
@@ -1,25 +1,63 @@
 package ai.docsite.translator.translate;
 
+import ai.docsite.translator.translate.ratelimit.RateLimitErrors;
 import dev.langchain4j.exception.ModelNotFoundException;
 import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Translator backed by a LangChain4j {@link ChatModel} implementation.
+ * Translator backed by a LangChain4j {@link ChatModel} implementation. When a {@link StreamingChatModel} is
+ * supplied, document bodies are streamed and checked line by line so that clearly divergent output is cut off
+ * as soon as it can no longer match the source.
  */
 public class ChatModelTranslator implements Translator {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChatModelTranslator.class);
+
+    /**
+     * Identifies the prompt wording; bump it whenever the prompts change so cached translations are not reused.
+     */
+    public static final String PROMPT_VERSION = "2";
+    private static final Pattern FRAGMENT = Pattern.compile("<fragment id=\"(\\d{1,4})\">\\R?(.*?)\\R?</fragment>", Pattern.DOTALL);
+    private static final Pattern NUMBERED_ENTRY = Pattern.compile("\\[(\\d{1,4})]\\s*(.*)");
+    private static final Duration STREAM_TIMEOUT = Duration.ofMinutes(5);
+
     private final ChatModel model;
+    private final StreamingChatModel streamingModel;
     private final String providerName;
     private final String modelName;
 
     public ChatModelTranslator(ChatModel model, String providerName, String modelName) {
+        this(model, null, providerName, modelName);
+    }
+
+    /**
+     * @param streamingModel model used for document bodies, or {@code null} to always use the blocking model
+     */
+    public ChatModelTranslator(ChatModel model, StreamingChatModel streamingModel, String providerName, String modelName) {
         this.model = Objects.requireNonNull(model, "model");
+        this.streamingModel = streamingModel;
         this.providerName = requireNonBlank(providerName, "providerName");
         this.modelName = requireNonBlank(modelName, "modelName");
     }
@@ -33,14 +71,7 @@ public class ChatModelTranslator implements Translator {
 
         int frontMatterEnd = findFrontMatterEnd(sourceLines);
         if (frontMatterEnd >= 0) {
-            for (int i = 0; i <= frontMatterEnd; i++) {
-                String line = sourceLines.get(i);
-                if (i == 0 || i == frontMatterEnd) {
-                    result.add(line);
-                } else {
-                    result.add(translateFrontMatterLine(line));
-                }
-            }
+            result.addAll(translateFrontMatter(sourceLines.subList(0, frontMatterEnd + 1)));
         }
 
         int bodyStart = frontMatterEnd >= 0 ? frontMatterEnd + 1 : 0;
@@ -73,20 +104,84 @@ Rules:
 """ + joined + "\n</markdown>";
     }
 
+    /**
+     * Translates several fragments with one delimited prompt. Fragments that contain front matter, are missing
+     * from the response or come back with a different number of lines are returned empty so that the caller
+     * can translate them individually.
+     */
+    @Override
+    public List<List<String>> translateBatch(List<List<String>> fragments) {
+        List<List<String>> results = new ArrayList<>(fragments.size());
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < fragments.size(); i++) {
+            results.add(List.of());
+            List<String> fragment = fragments.get(i);
+            if (fragment.isEmpty() || findFrontMatterEnd(fragment) >= 0) {
+                continue;
+            }
+            items.append("<fragment id=\"").append(i + 1).append("\">\n")
+                    .append(String.join("\n", fragment))
+                    .append("\n</fragment>\n");
+        }
+        if (items.isEmpty()) {
+            return results;
+        }
+        String response;
+        try {
+            response = model.chat(buildBatchPrompt(items.toString()));
+        } catch (RuntimeException ex) {
+            if (isModelMissing(ex)) {
+                throw new TranslationException("%s model '%s' is not available.".formatted(providerName, modelName), ex);
+            }
+            throw new TranslationException("LangChain batch translation failed", ex);
+        }
+        if (response == null) {
+            return results;
+        }
+        Matcher matcher = FRAGMENT.matcher(response);
+        while (matcher.find()) {
+            int index = Integer.parseInt(matcher.group(1)) - 1;
+            if (index < 0 || index >= fragments.size() || !results.get(index).isEmpty()) {
+                continue;
+            }
+            List<String> source = fragments.get(index);
+            List<String> rawLines = Arrays.stream(matcher.group(2).split("\\R", -1))
+                    .map(String::stripTrailing)
+                    .collect(Collectors.toList());
+            List<String> translated = trimExtraCodeFences(rawLines, source);
+            if (translated.size() == source.size()) {
+                results.set(index, List.copyOf(translated));
+            }
+        }
+        return results;
+    }
+
+    private String buildBatchPrompt(String fragments) {
+        return """
+Translate each Markdown fragment below into natural Japanese. The fragments come from different documents and are independent of each other.
+Rules:
+- Preserve the existing Markdown structure, including headings, lists, code fences, directives, links, and inline formatting.
+- Keep the exact number of lines of every fragment. If you need additional spacing, insert blank lines without removing existing ones.
+- Do not add, remove, or rename code fence markers. Only translate the text inside them when appropriate.
+- **IMPORTANT: For minor changes like typo fixes, spelling corrections, or punctuation adjustments, keep them as-is in English. Only translate substantial content changes that affect meaning.**
+- Output every translated fragment wrapped in the same `<fragment id="n">` and `</fragment>` lines as the input, in the same order. Output nothing else.
+
+""" + fragments;
+    }
+
     private List<String> translateBody(List<String> bodyLines) {
         if (bodyLines.isEmpty()) {
             return List.of();
         }
         try {
             String prompt = buildPrompt(bodyLines);
-            String response = model.chat(prompt);
-            if (response == null) {
+            List<String> rawLines = streamingModel == null ? chatLines(prompt) : streamLines(prompt, bodyLines);
+            if (rawLines == null) {
                 return List.of();
             }
-            List<String> rawLines = Arrays.stream(response.split("\\R", -1))
-                    .map(String::stripTrailing)
-                    .collect(Collectors.toList());
             return trimExtraCodeFences(rawLines, bodyLines);
+        } catch (TranslationException ex) {
+            throw ex;
         } catch (RuntimeException ex) {
             if (isModelMissing(ex)) {
                 throw new TranslationException("%s model '%s' is not available.".formatted(providerName, modelName), ex);
@@ -95,6 +190,74 @@ Rules:
         }
     }
 
+    private List<String> chatLines(String prompt) {
+        String response = model.chat(prompt);
+        if (response == null) {
+            return null;
+        }
+        return Arrays.stream(response.split("\\R", -1))
+                .map(String::stripTrailing)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Streams the response through a {@link StreamingLineAssembler}. Once the output can no longer match the
+     * source structure the remaining partial responses are ignored and the lines received so far are returned,
+     * so they take the same repair path as any other mismatched generation instead of costing a second request.
+     * LangChain4j 1.5 offers no handle to cancel a stream, so the provider still finishes the abandoned one.
+     */
+    private List<String> streamLines(String prompt, List<String> bodyLines) {
+        StreamingLineAssembler assembler = new StreamingLineAssembler(bodyLines);
+        AtomicBoolean received = new AtomicBoolean();
+        CompletableFuture<Boolean> completion = new CompletableFuture<>();
+        streamingModel.chat(prompt, new StreamingChatResponseHandler() {
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                synchronized (assembler) {
+                    received.set(true);
+                    if (!assembler.accept(partialResponse)) {
+                        completion.complete(false);
+                    }
+                }
+            }
+
+            @Override
+            public void onCompleteResponse(ChatResponse response) {
+                synchronized (assembler) {
+                    if (!received.get() && response != null && response.aiMessage() != null) {
+                        assembler.accept(response.aiMessage().text());
+                    }
+                    completion.complete(!assembler.hasDiverged());
+                }
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                completion.completeExceptionally(error);
+            }
+        });
+        boolean completed;
+        try {
+            completed = completion.get(STREAM_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new TranslationException("LangChain streaming translation timed out after " + STREAM_TIMEOUT, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new TranslationException("LangChain streaming translation interrupted", ex);
+        }
+        synchronized (assembler) {
+            if (!completed) {
+                LOGGER.warn("Abandoned streamed translation: {}; keeping the lines received so far", assembler.divergence());
+            }
+            return assembler.finish();
+        }
+    }
+
     private List<String> trimExtraCodeFences(List<String> translatedLines, List<String> sourceLines) {
         if (translatedLines.isEmpty() || sourceLines.isEmpty()) {
             return translatedLines;
@@ -146,28 +309,76 @@ Rules:
         return -1;
     }
 
-    private String translateFrontMatterLine(String line) {
-        int colonIndex = line.indexOf(':');
-        if (colonIndex < 0) {
-            return line;
+    /**
+     * Translates the scalar values of a front matter block, including its {@code ---} delimiters. All values
+     * are sent in a single request; values missing from that response are translated one by one. A failed
+     * request, such as a rate-limit rejection, fails the translation so that the caller can retry it.
+     */
+    private List<String> translateFrontMatter(List<String> frontMatterLines) {
+        List<String> result = new ArrayList<>(frontMatterLines);
+        List<FrontMatterScalar> scalars = new ArrayList<>();
+        for (int i = 1; i < frontMatterLines.size() - 1; i++) {
+            FrontMatterScalar scalar = FrontMatterScalar.parse(i, frontMatterLines.get(i));
+            if (scalar != null) {
+                scalars.add(scalar);
+            }
         }
-        String keyPart = line.substring(0, colonIndex);
-        String valuePart = line.substring(colonIndex + 1);
-        String trimmedValue = valuePart.trim();
-        if (trimmedValue.isEmpty()) {
-            return line;
+        if (scalars.isEmpty()) {
+            return result;
+        }
+        Map<Integer, String> translations = scalars.size() == 1 ? Map.of() : translateScalarValues(scalars);
+        for (int i = 0; i < scalars.size(); i++) {
+            FrontMatterScalar scalar = scalars.get(i);
+            String translated = translations.get(i + 1);
+            if (translated == null) {
+                translated = translateScalarValue(scalar.value());
+            }
+            if (translated.isBlank()) {
+                translated = scalar.value();
+            }
+            result.set(scalar.lineIndex(), scalar.withValue(translated));
         }
+        return result;
+    }
 
-        int start = valuePart.indexOf(trimmedValue);
-        int end = start + trimmedValue.length();
-        String prefix = start >= 0 ? valuePart.substring(0, start) : "";
-        String suffix = end >= 0 && end <= valuePart.length() ? valuePart.substring(end) : "";
+    private Map<Integer, String> translateScalarValues(List<FrontMatterScalar> scalars) {
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < scalars.size(); i++) {
+            FrontMatterScalar scalar = scalars.get(i);
+            items.append('[').append(i + 1).append("] ").append(scalar.key().strip()).append(": ").append(scalar.value()).append('\n');
+        }
+        String prompt = """
+Translate the value of each YAML front matter entry below into natural Japanese.
+Each input line has the form `[n] key: value`. Answer with exactly one line per entry in the form `[n] translated value`,
+keeping the same numbers. Translate only the value; do not repeat the key, and add no additional punctuation or commentary.
 
-        String translated = translateScalarValue(trimmedValue);
-        if (translated.isBlank()) {
-            translated = trimmedValue;
+<entries>
+""" + items + "</entries>";
+        try {
+            String response = model.chat(prompt);
+            if (response == null) {
+                return Map.of();
+            }
+            Map<Integer, String> translations = new HashMap<>();
+            for (String line : response.split("\\R")) {
+                Matcher matcher = NUMBERED_ENTRY.matcher(line.strip());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                int number = Integer.parseInt(matcher.group(1));
+                String translated = matcher.group(2).strip();
+                if (number >= 1 && number <= scalars.size() && !translated.isEmpty()) {
+                    translations.putIfAbsent(number, translated);
+                }
+            }
+            return translations;
+        } catch (RuntimeException ex) {
+            if (isModelMissing(ex)) {
+                throw new TranslationException("%s model '%s' is not available.".formatted(providerName, modelName), ex);
+            }
+            // only an unusable answer falls back to per-key requests; a failed request would fail each of them too
+            throw new TranslationException("LangChain front matter translation failed", ex);
         }
-        return keyPart + ":" + prefix + translated + suffix;
     }
 
     private String translateScalarValue(String value) {
@@ -191,6 +402,10 @@ Return only the translated phrase without additional punctuation or commentary.
             if (isModelMissing(ex)) {
                 throw new TranslationException("%s model '%s' is not available.".formatted(providerName, modelName), ex);
             }
+            if (RateLimitErrors.isRateLimitError(ex)) {
+                // keeping the English value would let it be remembered as the translation
+                throw new TranslationException("LangChain front matter translation failed", ex);
+            }
             return value;
         }
     }
@@ -206,6 +421,29 @@ Return only the translated phrase without additional punctuation or commentary.
         return false;
     }
 
+    private record FrontMatterScalar(int lineIndex, String key, String prefix, String value, String suffix) {
+
+        static FrontMatterScalar parse(int lineIndex, String line) {
+            int colonIndex = line.indexOf(':');
+            if (colonIndex < 0) {
+                return null;
+            }
+            String keyPart = line.substring(0, colonIndex);
+            String valuePart = line.substring(colonIndex + 1);
+            String trimmedValue = valuePart.trim();
+            if (trimmedValue.isEmpty()) {
+                return null;
+            }
+            int start = valuePart.indexOf(trimmedValue);
+            int end = start + trimmedValue.length();
+            return new FrontMatterScalar(lineIndex, keyPart, valuePart.substring(0, start), trimmedValue, valuePart.substring(end));
+        }
+
+        String withValue(String translated) {
+            return key + ":" + prefix + translated + suffix;
+        }
+    }
+
     private static String requireNonBlank(String value, String fieldName) {
         if (value == null || value.isBlank()) {
             throw new IllegalArgumentException(fieldName + " must not be blank");
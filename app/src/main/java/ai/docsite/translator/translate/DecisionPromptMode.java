@@ -0,0 +1,23 @@
+package ai.docsite.translator.translate;
+
+/**
+ * Controls how much of a changed document the translation decision prompt contains.
+ */
+public enum DecisionPromptMode {
+    /** Both complete versions of the document. */
+    FULL,
+    /** Only the changed hunks with a few lines of context. */
+    DIFF;
+
+    public static DecisionPromptMode from(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return FULL;
+        }
+        for (DecisionPromptMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(raw.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported decision prompt mode: " + raw);
+    }
+}
@@ -1,8 +1,10 @@
 package ai.docsite.translator.translate;
 
+import ai.docsite.translator.writer.LineSegment;
 import ai.docsite.translator.writer.LineStructureAnalysis;
 import ai.docsite.translator.writer.LineStructureAnalyzer;
 import ai.docsite.translator.writer.LineStructureAdjuster;
+import ai.docsite.translator.writer.LineType;
 import java.util.List;
 import java.util.Objects;
 
@@ -23,4 +25,19 @@ public class LineStructureFormatter {
         LineStructureAnalysis analysis = analyzer.analyze(sourceLines);
         return adjuster.adjust(sourceLines, translatedLines, analysis);
     }
+
+    /**
+     * Returns whether {@code translatedLines} holds a line for every source line, or for every line with content
+     * when the blank lines were left out. Any other output is padded with blank lines or cut by {@link #format}.
+     */
+    public boolean coversSource(List<String> sourceLines, List<String> translatedLines) {
+        if (translatedLines.size() == sourceLines.size()) {
+            return true;
+        }
+        int contentLines = analyzer.analyze(sourceLines).segments().stream()
+                .filter(segment -> segment.type() == LineType.CONTENT)
+                .mapToInt(LineSegment::length)
+                .sum();
+        return translatedLines.size() == contentLines;
+    }
 }
@@ -0,0 +1,248 @@
+package ai.docsite.translator.translate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.lib.AsyncObjectLoaderQueue;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectLoader;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+
+/**
+ * Reads file contents at given commits for a single planning run. Each repository is opened once and read
+ * through one {@link ObjectReader}, and resolved commit trees are cached, so pack indexes are loaded once per
+ * run instead of once per lookup. Blobs are kept as raw bytes ({@link SourceText}) and decoded line by line
+ * only where a caller reads them.
+ *
+ * <p>{@link #preload} resolves a whole set of paths with a single tree walk, so later reads at that commit are
+ * answered without walking the tree again. It only records blob ids; {@link #prefetch} then reads the blobs of
+ * the files about to be planned in one batch, letting the object reader order the reads, and blobs of files a
+ * run never plans are not read at all.</p>
+ *
+ * <p>All reading methods are synchronized because JGit readers are not thread-safe; concurrent planners share
+ * the session but read one blob at a time. Edit lists are memoized per upstream blob pair outside that lock, so
+ * documents with the same upstream change, such as copies kept for several doc versions, are diffed once.</p>
+ */
+final class PlanningSession implements AutoCloseable {
+
+    private final Map<Path, RepositoryHandle> repositories = new HashMap<>();
+    private final Map<String, EditList> editLists = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the lines of {@code filePath} at {@code commitSha}, or an empty list when the repository, the
+     * commit or the file does not exist.
+     */
+    List<String> readLines(Path repositoryDir, String commitSha, String filePath) throws IOException {
+        return readText(repositoryDir, commitSha, filePath).lines();
+    }
+
+    /**
+     * Returns {@code filePath} at {@code commitSha} as undecoded blob bytes, or an empty text when the
+     * repository, the commit or the file does not exist.
+     */
+    synchronized SourceText readText(Path repositoryDir, String commitSha, String filePath) throws IOException {
+        if (commitSha == null || commitSha.isBlank()) {
+            return SourceText.EMPTY;
+        }
+        RepositoryHandle handle = repository(repositoryDir);
+        if (handle == null) {
+            return SourceText.EMPTY;
+        }
+        ObjectId blobId = handle.blobId(commitSha, filePath);
+        return blobId == null ? SourceText.EMPTY : handle.text(blobId);
+    }
+
+    /**
+     * Returns the git blob id of {@code filePath} at {@code commitSha}, or empty when the repository, the commit
+     * or the file does not exist.
+     */
+    synchronized Optional<String> blobId(Path repositoryDir, String commitSha, String filePath) throws IOException {
+        if (commitSha == null || commitSha.isBlank()) {
+            return Optional.empty();
+        }
+        RepositoryHandle handle = repository(repositoryDir);
+        if (handle == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(handle.blobId(commitSha, filePath)).map(ObjectId::getName);
+    }
+
+    /**
+     * Returns the edits from blob {@code baseBlobId} to blob {@code newBlobId}, computing them with
+     * {@code compute} the first time the pair is seen in this session.
+     */
+    EditList edits(String baseBlobId, String newBlobId, Supplier<EditList> compute) {
+        return editLists.computeIfAbsent(baseBlobId + ".." + newBlobId, key -> compute.get());
+    }
+
+    /**
+     * Resolves every path in {@code filePaths} at {@code commitSha} with one recursive tree walk and remembers
+     * their blob ids. Paths absent from the commit are remembered as missing.
+     */
+    synchronized void preload(Path repositoryDir, String commitSha, Collection<String> filePaths) throws IOException {
+        if (commitSha == null || commitSha.isBlank() || filePaths.isEmpty()) {
+            return;
+        }
+        RepositoryHandle handle = repository(repositoryDir);
+        if (handle == null || handle.preloadedPaths.containsKey(commitSha)) {
+            return;
+        }
+        Optional<RevTree> tree = handle.tree(commitSha);
+        if (tree.isEmpty()) {
+            return;
+        }
+        Map<String, ObjectId> blobIds = new HashMap<>();
+        try (TreeWalk treeWalk = new TreeWalk(handle.reader)) {
+            treeWalk.addTree(tree.get());
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(PathFilterGroup.createFromStrings(filePaths));
+            while (treeWalk.next()) {
+                if (treeWalk.getFileMode(0).getObjectType() == Constants.OBJ_BLOB) {
+                    blobIds.put(treeWalk.getPathString(), treeWalk.getObjectId(0));
+                }
+            }
+        }
+        handle.preloadedPaths.put(commitSha, blobIds);
+    }
+
+    /**
+     * Reads the blobs of {@code filePaths} at a commit resolved by {@link #preload} in one batch. Each blob is
+     * released again once it has been read through {@link #readText}.
+     */
+    synchronized void prefetch(Path repositoryDir, String commitSha, Collection<String> filePaths) throws IOException {
+        if (commitSha == null || commitSha.isBlank() || filePaths.isEmpty()) {
+            return;
+        }
+        RepositoryHandle handle = repository(repositoryDir);
+        Map<String, ObjectId> preloaded = handle == null ? null : handle.preloadedPaths.get(commitSha);
+        if (preloaded == null) {
+            return;
+        }
+        handle.loadBlobs(filePaths.stream()
+                .map(preloaded::get)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    private RepositoryHandle repository(Path repositoryDir) throws IOException {
+        Path key = repositoryDir.toAbsolutePath().normalize();
+        RepositoryHandle handle = repositories.get(key);
+        if (handle != null) {
+            return handle;
+        }
+        Path gitDir = key.resolve(".git");
+        if (!Files.exists(gitDir)) {
+            return null;
+        }
+        Repository repository = new FileRepositoryBuilder()
+                .setGitDir(gitDir.toFile())
+                .setMustExist(true)
+                .build();
+        handle = new RepositoryHandle(repository);
+        repositories.put(key, handle);
+        return handle;
+    }
+
+    @Override
+    public synchronized void close() {
+        repositories.values().forEach(RepositoryHandle::close);
+        repositories.clear();
+        editLists.clear();
+    }
+
+    private static final class RepositoryHandle {
+
+        private final Repository repository;
+        private final ObjectReader reader;
+        private final RevWalk walk;
+        private final Map<String, Optional<RevTree>> trees = new HashMap<>();
+        private final Map<String, Map<String, ObjectId>> preloadedPaths = new HashMap<>();
+        private final Map<ObjectId, SourceText> blobs = new HashMap<>();
+
+        private RepositoryHandle(Repository repository) {
+            this.repository = repository;
+            this.reader = repository.newObjectReader();
+            this.walk = new RevWalk(reader);
+        }
+
+        private Optional<RevTree> tree(String commitSha) throws IOException {
+            Optional<RevTree> cached = trees.get(commitSha);
+            if (cached != null) {
+                return cached;
+            }
+            ObjectId commitId = repository.resolve(commitSha);
+            Optional<RevTree> tree = commitId == null
+                    ? Optional.empty()
+                    : Optional.of(walk.parseCommit(commitId).getTree());
+            trees.put(commitSha, tree);
+            return tree;
+        }
+
+        private ObjectId blobId(String commitSha, String filePath) throws IOException {
+            Map<String, ObjectId> preloaded = preloadedPaths.get(commitSha);
+            if (preloaded != null) {
+                return preloaded.get(filePath);
+            }
+            Optional<RevTree> tree = tree(commitSha);
+            if (tree.isEmpty()) {
+                return null;
+            }
+            try (TreeWalk treeWalk = TreeWalk.forPath(reader, filePath, tree.get())) {
+                return treeWalk == null ? null : treeWalk.getObjectId(0);
+            }
+        }
+
+        private SourceText text(ObjectId blobId) throws IOException {
+            // prefetched blobs are normally read once, so they are released as soon as they are handed out
+            SourceText cached = blobs.remove(blobId);
+            if (cached != null) {
+                return cached;
+            }
+            return load(reader.open(blobId));
+        }
+
+        private void loadBlobs(Collection<ObjectId> blobIds) throws IOException {
+            List<ObjectId> missing = blobIds.stream()
+                    .filter(id -> !blobs.containsKey(id))
+                    .distinct()
+                    .toList();
+            if (missing.isEmpty()) {
+                return;
+            }
+            AsyncObjectLoaderQueue<ObjectId> queue = reader.open(missing, true);
+            try {
+                while (queue.next()) {
+                    blobs.put(queue.getObjectId().copy(), load(queue.open()));
+                }
+            } finally {
+                queue.release();
+            }
+        }
+
+        private static SourceText load(ObjectLoader loader) throws IOException {
+            return SourceText.of(loader.getCachedBytes(Integer.MAX_VALUE));
+        }
+
+        private void close() {
+            walk.close();
+            reader.close();
+            repository.close();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package ai.docsite.translator.translate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.diff.RawTextComparator;
+
+/**
+ * UTF-8 document held as the raw bytes of its blob. Diffs run directly on the bytes, and {@link #lines()}
+ * decodes a line only when it is read, so large documents of which only a few lines change are never decoded
+ * as a whole.
+ *
+ * <p>Lines are split like {@link java.io.BufferedReader#readLine()}: a line ends at {@code \n}, {@code \r\n} or
+ * a lone {@code \r}, and the terminator is not part of the line.</p>
+ */
+final class SourceText extends RawText {
+
+    static final SourceText EMPTY = new SourceText(new byte[0]);
+
+    /**
+     * Compares lines without their terminators, so a changed line ending or a missing newline at the end of the
+     * file is not reported as an edit.
+     */
+    static final RawTextComparator LINE_CONTENT = new RawTextComparator() {
+        @Override
+        public boolean equals(RawText a, int ai, RawText b, int bi) {
+            SourceText first = (SourceText) a;
+            SourceText second = (SourceText) b;
+            int start = first.lineStart(ai);
+            int end = first.contentEnd(ai);
+            int otherStart = second.lineStart(bi);
+            int otherEnd = second.contentEnd(bi);
+            if (end - start != otherEnd - otherStart) {
+                return false;
+            }
+            return Arrays.equals(first.content, start, end, second.content, otherStart, otherEnd);
+        }
+
+        @Override
+        protected int hashRegion(byte[] raw, int ptr, int end) {
+            end = trimTerminator(raw, ptr, end);
+            int hash = 5381;
+            for (; ptr < end; ptr++) {
+                hash = ((hash << 5) + hash) + (raw[ptr] & 0xff);
+            }
+            return hash;
+        }
+    };
+
+    private final String[] decoded;
+
+    private SourceText(byte[] content) {
+        super(content);
+        this.decoded = new String[size()];
+    }
+
+    static SourceText of(byte[] content) {
+        return content.length == 0 ? EMPTY : new SourceText(normalizeLoneCarriageReturns(content));
+    }
+
+    /**
+     * Returns line {@code index} without its terminator.
+     */
+    String line(int index) {
+        String line = decoded[index];
+        if (line == null) {
+            int start = lineStart(index);
+            line = new String(content, start, contentEnd(index) - start, StandardCharsets.UTF_8);
+            // racing readers decode the same immutable value, so the unsynchronized cache is safe
+            decoded[index] = line;
+        }
+        return line;
+    }
+
+    /**
+     * Returns an unmodifiable view of the lines that decodes each line on first access.
+     */
+    List<String> lines() {
+        return new Lines(this);
+    }
+
+    /**
+     * Writes line {@code index} without its terminator, so a diff of a {@code \r\n} document shows no stray
+     * carriage returns.
+     */
+    @Override
+    public void writeLine(OutputStream out, int index) throws IOException {
+        int start = lineStart(index);
+        out.write(content, start, contentEnd(index) - start);
+    }
+
+    /**
+     * Returns whether any line starts with {@code prefix}, without decoding the lines.
+     */
+    boolean hasLineStartingWith(String prefix) {
+        byte[] bytes = prefix.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < size(); i++) {
+            int start = lineStart(i);
+            if (contentEnd(i) - start >= bytes.length
+                    && Arrays.equals(content, start, start + bytes.length, bytes, 0, bytes.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Marks the lines that open or close a {@code ```} code fence, ignoring leading blanks and tabs, and the lines
+     * between them, without decoding the lines.
+     */
+    boolean[] fencedLines() {
+        boolean[] code = new boolean[size()];
+        boolean open = false;
+        for (int i = 0; i < size(); i++) {
+            int start = lineStart(i);
+            int end = contentEnd(i);
+            while (start < end && (content[start] == ' ' || content[start] == '\t')) {
+                start++;
+            }
+            boolean fence = end - start >= 3 && content[start] == '`' && content[start + 1] == '`' && content[start + 2] == '`';
+            code[i] = open || fence;
+            if (fence) {
+                open = !open;
+            }
+        }
+        return code;
+    }
+
+    private int lineStart(int index) {
+        return lines.get(index + 1);
+    }
+
+    private int contentEnd(int index) {
+        return trimTerminator(content, lineStart(index), lines.get(index + 2));
+    }
+
+    private static int trimTerminator(byte[] raw, int start, int end) {
+        if (end > start && raw[end - 1] == '\n') {
+            end--;
+        }
+        if (end > start && raw[end - 1] == '\r') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * RawText only splits at {@code \n}; the rare old-style {@code \r} line ends are rewritten so both agree
+     * on the line boundaries.
+     */
+    private static byte[] normalizeLoneCarriageReturns(byte[] content) {
+        byte[] normalized = null;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] == '\r' && (i + 1 == content.length || content[i + 1] != '\n')) {
+                if (normalized == null) {
+                    normalized = content.clone();
+                }
+                normalized[i] = '\n';
+            }
+        }
+        return normalized == null ? content : normalized;
+    }
+
+    /**
+     * Lazily decoded line view; {@link TranslationTask} keeps it as is instead of copying every line.
+     */
+    static final class Lines extends AbstractList<String> implements RandomAccess {
+
+        private final SourceText text;
+
+        private Lines(SourceText text) {
+            this.text = text;
+        }
+
+        @Override
+        public String get(int index) {
+            return text.line(index);
+        }
+
+        @Override
+        public int size() {
+            return text.size();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ai.docsite.translator.translate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Assembles streamed model output into lines while it arrives and detects generations that can no longer
+ * satisfy the line-count and code-fence invariants of the source.
+ *
+ * <p>The limits leave room for what {@link ChatModelTranslator} repairs after the fact (a wrapping fence,
+ * surrounding blank lines) and for what {@link LineStructureFormatter} realigns, so only clearly divergent
+ * output is reported.</p>
+ */
+class StreamingLineAssembler {
+
+    private static final String FENCE = "```";
+    private static final int MIN_EXTRA_LINES = 5;
+    private static final int EXTRA_LINES_DIVISOR = 4;
+
+    private final int maxLines;
+    private final long maxFences;
+    private final List<String> lines = new ArrayList<>();
+    private final StringBuilder pending = new StringBuilder();
+    private long fences;
+    private boolean lastWasCarriageReturn;
+    private String divergence;
+
+    StreamingLineAssembler(List<String> sourceLines) {
+        int expectedLines = sourceLines.size();
+        this.maxLines = expectedLines + Math.max(MIN_EXTRA_LINES, expectedLines / EXTRA_LINES_DIVISOR);
+        // one extra closing fence is tolerated because trailing surplus fences are trimmed afterwards
+        this.maxFences = sourceLines.stream().filter(FENCE::equals).count() + 1;
+    }
+
+    /**
+     * Appends a partial response.
+     *
+     * @return {@code false} once the output has diverged; further input is ignored
+     */
+    boolean accept(String partial) {
+        if (divergence != null) {
+            return false;
+        }
+        if (partial == null || partial.isEmpty()) {
+            return true;
+        }
+        for (int i = 0; i < partial.length(); i++) {
+            char c = partial.charAt(i);
+            if (c == '\n' && lastWasCarriageReturn) {
+                // second half of a CRLF line break
+                lastWasCarriageReturn = false;
+                continue;
+            }
+            lastWasCarriageReturn = c == '\r';
+            if (c == '\r' || c == '\n') {
+                completeLine();
+                if (divergence != null) {
+                    return false;
+                }
+            } else {
+                pending.append(c);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Completes the last line and returns every assembled line with trailing whitespace removed.
+     */
+    List<String> finish() {
+        if (divergence == null) {
+            completeLine();
+        }
+        return List.copyOf(lines);
+    }
+
+    boolean hasDiverged() {
+        return divergence != null;
+    }
+
+    String divergence() {
+        return divergence;
+    }
+
+    private void completeLine() {
+        String line = pending.toString().stripTrailing();
+        pending.setLength(0);
+        lines.add(line);
+        if (FENCE.equals(line)) {
+            fences++;
+        }
+        if (fences > maxFences) {
+            divergence = "output contains %d code fences but the source has %d".formatted(fences, maxFences - 1);
+        } else if (lines.size() > maxLines) {
+            divergence = "output exceeds %d lines".formatted(maxLines);
+        }
+    }
+}
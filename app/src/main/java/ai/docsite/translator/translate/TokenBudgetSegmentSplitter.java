@@ -0,0 +1,113 @@
+package ai.docsite.translator.translate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Splits changed line ranges into segments whose estimated token count fits a budget.
+ *
+ * <p>Breaks are placed at Markdown block boundaries where possible: before a heading or after a blank line,
+ * never inside front matter or a fenced code block. When a block alone exceeds the budget it is cut at the last
+ * line outside a code fence, and only as a last resort in the middle of a fence.</p>
+ *
+ * <p>The splitter never merges segments. The planner has already joined touching ranges, so the lines between two
+ * segments are unchanged and keep their existing translation; small segments are instead packed into shared
+ * prompts by the batch token budget of {@link TranslationService}.</p>
+ */
+final class TokenBudgetSegmentSplitter {
+
+    private final int tokenBudget;
+
+    TokenBudgetSegmentSplitter(int tokenBudget) {
+        if (tokenBudget <= 0) {
+            throw new IllegalArgumentException("tokenBudget must be positive");
+        }
+        this.tokenBudget = tokenBudget;
+    }
+
+    /**
+     * @param lines    every line of the source document, used to track code fences opened before the segment
+     * @param segments non-overlapping segments sorted by start line
+     */
+    List<TranslationSegment> split(List<String> lines, List<TranslationSegment> segments) {
+        boolean[] insideFence = fenceStates(lines);
+        List<TranslationSegment> result = new ArrayList<>();
+        for (TranslationSegment segment : segments) {
+            splitSegment(lines, insideFence, segment, result);
+        }
+        return result;
+    }
+
+    private void splitSegment(List<String> lines, boolean[] insideFence, TranslationSegment segment,
+                              List<TranslationSegment> result) {
+        int chunkStart = segment.startLine();
+        int tokens = 0;
+        for (int i = segment.startLine(); i < segment.endLineExclusive(); i++) {
+            int lineTokens = TokenEstimator.estimate(lines.get(i)) + 1;
+            while (i > chunkStart && tokens + lineTokens > tokenBudget) {
+                int cut = findBreak(lines, insideFence, chunkStart, i);
+                result.add(new TranslationSegment(chunkStart, cut));
+                tokens -= TokenEstimator.estimate(lines.subList(chunkStart, cut));
+                chunkStart = cut;
+            }
+            tokens += lineTokens;
+        }
+        if (chunkStart < segment.endLineExclusive()) {
+            result.add(new TranslationSegment(chunkStart, segment.endLineExclusive()));
+        }
+    }
+
+    /**
+     * Returns the line in {@code (chunkStart, limit]} before which the chunk should end.
+     */
+    private static int findBreak(List<String> lines, boolean[] insideFence, int chunkStart, int limit) {
+        int outsideFence = -1;
+        for (int i = limit; i > chunkStart; i--) {
+            if (insideFence[i]) {
+                continue;
+            }
+            if (isHeading(lines.get(i)) || lines.get(i - 1).isBlank()) {
+                return i;
+            }
+            if (outsideFence < 0) {
+                outsideFence = i;
+            }
+        }
+        return outsideFence >= 0 ? outsideFence : limit;
+    }
+
+    /**
+     * Marks the lines a break must not be placed in front of: the rest of a leading front matter block, fence
+     * contents and closing fence lines.
+     */
+    private static boolean[] fenceStates(List<String> lines) {
+        boolean[] insideFence = new boolean[lines.size()];
+        int bodyStart = 0;
+        if (!lines.isEmpty() && lines.get(0).strip().equals("---")) {
+            for (int i = 1; i < lines.size(); i++) {
+                insideFence[i] = true;
+                if (lines.get(i).strip().equals("---")) {
+                    bodyStart = i + 1;
+                    break;
+                }
+            }
+            if (bodyStart == 0) {
+                // unterminated front matter is treated as ordinary content
+                Arrays.fill(insideFence, false);
+            }
+        }
+        boolean open = false;
+        for (int i = bodyStart; i < lines.size(); i++) {
+            insideFence[i] = open;
+            if (lines.get(i).strip().startsWith("```")) {
+                open = !open;
+            }
+        }
+        return insideFence;
+    }
+
+    private static boolean isHeading(String line) {
+        return line.stripLeading().startsWith("#");
+    }
+}
@@ -0,0 +1,45 @@
+package ai.docsite.translator.translate;
+
+import java.util.List;
+
+/**
+ * Cheap, provider-agnostic approximation of LLM token counts used for pacing and prompt budgeting.
+ *
+ * <p>ASCII text is counted at roughly four characters per token, while non-ASCII characters (for example
+ * Japanese) are counted as one token each, which errs on the side of overestimating.</p>
+ */
+public final class TokenEstimator {
+
+    private static final int ASCII_CHARS_PER_TOKEN = 4;
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 0x80) {
+                ascii++;
+            } else {
+                other++;
+            }
+        }
+        return (ascii + ASCII_CHARS_PER_TOKEN - 1) / ASCII_CHARS_PER_TOKEN + other;
+    }
+
+    public static int estimate(List<String> lines) {
+        if (lines == null || lines.isEmpty()) {
+            return 0;
+        }
+        int total = 0;
+        for (String line : lines) {
+            // one extra token for the line break
+            total += estimate(line) + 1;
+        }
+        return total;
+    }
+}
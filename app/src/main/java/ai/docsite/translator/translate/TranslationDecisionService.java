@@ -1,22 +1,77 @@
 package ai.docsite.translator.translate;
 
+import ai.docsite.translator.translate.memory.DecisionMemory;
 import dev.langchain4j.model.chat.ChatModel;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import org.eclipse.jgit.diff.DiffAlgorithm;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.EditList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Uses LLM to determine if file changes require translation or are minor (typos, formatting).
+ *
+ * <p>Depending on the {@link DecisionPromptMode} the prompt contains both complete documents or only the changed
+ * hunks. With an input token cap, documents that would exceed it are always sent as hunks, and hunks beyond the
+ * cap are left out.</p>
+ *
+ * <p>When the caller supplies the git blob ids of both versions, answers of the LLM are kept in a
+ * {@link DecisionMemory} and an identical change is decided again without calling it.</p>
  */
 public class TranslationDecisionService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TranslationDecisionService.class);
 
+    /** Identifies the decision prompts; bump it whenever their wording changes so that cached decisions expire. */
+    public static final String PROMPT_VERSION = "1";
+
+    private static final int DIFF_CONTEXT_LINES = 3;
+
     private final ChatModel chatModel;
+    private final DecisionPromptMode promptMode;
+    private final int maxInputTokens;
+    private final DecisionMemory decisionMemory;
+
+    /**
+     * Version under which a {@link DecisionMemory} should keep the decisions of a service with these settings.
+     * Diff prompts show the model less of the document and the token cap drops hunks, so answers given under
+     * other settings are kept apart.
+     */
+    public static String memoryVersion(DecisionPromptMode promptMode, int maxInputTokens) {
+        return PROMPT_VERSION + "/" + Objects.requireNonNull(promptMode, "promptMode").name() + "/" + maxInputTokens;
+    }
 
     public TranslationDecisionService(ChatModel chatModel) {
+        this(chatModel, DecisionPromptMode.FULL, 0);
+    }
+
+    /**
+     * @param maxInputTokens estimated token cap for the document content of a prompt; 0 means no cap
+     */
+    public TranslationDecisionService(ChatModel chatModel, DecisionPromptMode promptMode, int maxInputTokens) {
+        this(chatModel, promptMode, maxInputTokens, DecisionMemory.disabled());
+    }
+
+    /**
+     * @param decisionMemory cache of earlier decisions keyed by the blob ids of both versions
+     */
+    public TranslationDecisionService(ChatModel chatModel, DecisionPromptMode promptMode, int maxInputTokens,
+                                      DecisionMemory decisionMemory) {
+        if (maxInputTokens < 0) {
+            throw new IllegalArgumentException("maxInputTokens must be at least 0");
+        }
         this.chatModel = Objects.requireNonNull(chatModel, "chatModel");
+        this.promptMode = Objects.requireNonNull(promptMode, "promptMode");
+        this.maxInputTokens = maxInputTokens;
+        this.decisionMemory = Objects.requireNonNull(decisionMemory, "decisionMemory");
     }
 
     /**
@@ -28,16 +83,53 @@ public class TranslationDecisionService {
      * @return true if translation is needed, false if changes are minor (typos, formatting)
      */
     public boolean shouldTranslate(String filePath, List<String> baseLines, List<String> newLines) {
-        if (newLines.isEmpty()) {
+        return shouldTranslate(filePath, baseLines, newLines, null);
+    }
+
+    /**
+     * Same as {@link #shouldTranslate(String, List, List)}, reusing the histogram {@code edits} between the two
+     * versions when the caller already computed them.
+     */
+    public boolean shouldTranslate(String filePath, List<String> baseLines, List<String> newLines, EditList edits) {
+        return shouldTranslate(filePath, baseLines, newLines, edits, null, null);
+    }
+
+    /**
+     * Same as {@link #shouldTranslate(String, List, List, EditList)}, consulting and feeding the decision memory
+     * with the git blob ids of both versions. Only actual answers of the LLM are remembered, never the fallback
+     * used when it fails.
+     */
+    public boolean shouldTranslate(String filePath, List<String> baseLines, List<String> newLines, EditList edits,
+                                   String baseBlobId, String newBlobId) {
+        return shouldTranslate(filePath, toSourceText(baseLines), toSourceText(newLines), edits, baseBlobId, newBlobId);
+    }
+
+    /**
+     * Same as {@link #shouldTranslate(String, List, List, EditList, String, String)} for the blob texts the
+     * planner already read and diffed; hunks are formatted straight from them, and the documents are only
+     * decoded when the prompt contains them in full.
+     */
+    boolean shouldTranslate(String filePath, SourceText baseText, SourceText newText, EditList edits,
+                            String baseBlobId, String newBlobId) {
+        if (newText.size() == 0) {
             return false;
         }
 
         // If no base content, it's a new file that needs full translation
-        if (baseLines.isEmpty()) {
+        if (baseText.size() == 0) {
             return true;
         }
 
-        String prompt = buildDecisionPrompt(filePath, baseLines, newLines);
+        Optional<Boolean> remembered = decisionMemory.lookup(baseBlobId, newBlobId);
+        if (remembered.isPresent()) {
+            LOGGER.info("Reusing cached translation decision for {} ({})", filePath,
+                    remembered.get() ? "translate" : "skip");
+            return remembered.get();
+        }
+
+        String prompt = usesFullDocuments(baseText, newText)
+                ? buildDecisionPrompt(filePath, baseText.lines(), newText.lines())
+                : buildDiffDecisionPrompt(filePath, baseText, newText, edits);
         
         try {
             String response = chatModel.chat(prompt);
@@ -56,6 +148,7 @@ public class TranslationDecisionService {
             } else {
                 LOGGER.info("LLM decided to skip translation for {} (minor changes only)", filePath);
             }
+            decisionMemory.store(baseBlobId, newBlobId, shouldTranslate);
             
             return shouldTranslate;
         } catch (RuntimeException ex) {
@@ -88,4 +181,90 @@ Determine if these changes require re-translation or are minor edits that don't
 Respond with ONLY one word: "YES" if translation is needed, or "NO" if changes are minor and don't require re-translation.
 """.formatted(filePath, baseDiff, newDiff);
     }
+
+    private boolean usesFullDocuments(SourceText baseText, SourceText newText) {
+        if (promptMode != DecisionPromptMode.FULL) {
+            return false;
+        }
+        return maxInputTokens == 0
+                || TokenEstimator.estimate(baseText.lines()) + TokenEstimator.estimate(newText.lines()) <= maxInputTokens;
+    }
+
+    private String buildDiffDecisionPrompt(String filePath, SourceText baseText, SourceText newText, EditList edits) {
+        return """
+You are analyzing changes to an English documentation file to determine if they require re-translation to Japanese.
+
+File: %s
+
+=== CHANGES (unified diff with %d lines of context) ===
+%s
+
+=== TASK ===
+Determine if these changes require re-translation or are minor edits that don't affect meaning:
+- **Translation needed (respond YES)**: Content additions, rewrites, structural changes, new sections, meaning changes
+- **No translation needed (respond NO)**: Typo fixes, spelling corrections, punctuation changes, whitespace adjustments, minor formatting
+
+Respond with ONLY one word: "YES" if translation is needed, or "NO" if changes are minor and don't require re-translation.
+""".formatted(filePath, DIFF_CONTEXT_LINES, formatHunks(baseText, newText, edits));
+    }
+
+    /**
+     * Formats the changed hunks, keeping whole hunks until {@link #maxInputTokens} is reached.
+     */
+    String formatHunks(SourceText baseText, SourceText newText, EditList edits) {
+        EditList diff = edits != null ? edits
+                : DiffAlgorithm.getAlgorithm(DiffAlgorithm.SupportedAlgorithm.HISTOGRAM)
+                        .diff(SourceText.LINE_CONTENT, baseText, newText);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DiffFormatter formatter = new DiffFormatter(out)) {
+            formatter.setContext(DIFF_CONTEXT_LINES);
+            formatter.format(diff, baseText, newText);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        String formatted = out.toString(StandardCharsets.UTF_8);
+        if (maxInputTokens == 0 || TokenEstimator.estimate(formatted) <= maxInputTokens) {
+            return formatted;
+        }
+        return truncateHunks(formatted);
+    }
+
+    private String truncateHunks(String formatted) {
+        List<String> hunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : formatted.split("\n", -1)) {
+            if (line.startsWith("@@") && !current.isEmpty()) {
+                hunks.add(current.toString());
+                current.setLength(0);
+            }
+            current.append(line).append('\n');
+        }
+        hunks.add(current.toString());
+
+        StringBuilder result = new StringBuilder();
+        int tokens = 0;
+        int kept = 0;
+        for (String hunk : hunks) {
+            int hunkTokens = TokenEstimator.estimate(hunk);
+            if (tokens + hunkTokens > maxInputTokens) {
+                if (kept == 0) {
+                    // a single oversized hunk is cut rather than dropped so the model still sees the change
+                    result.append(hunk, 0, Math.min(hunk.length(), maxInputTokens)).append('\n');
+                    kept++;
+                }
+                break;
+            }
+            result.append(hunk);
+            tokens += hunkTokens;
+            kept++;
+        }
+        if (kept < hunks.size()) {
+            result.append("... ").append(hunks.size() - kept).append(" more hunk(s) omitted\n");
+        }
+        return result.toString();
+    }
+
+    private static SourceText toSourceText(List<String> lines) {
+        return SourceText.of(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
 }
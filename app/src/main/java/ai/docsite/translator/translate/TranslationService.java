@@ -1,18 +1,28 @@
 package ai.docsite.translator.translate;
 
 import ai.docsite.translator.diff.DiffMetadata;
+import ai.docsite.translator.translate.memory.ParagraphMemory;
+import ai.docsite.translator.translate.memory.TranslationMemory;
+import ai.docsite.translator.translate.ratelimit.RateLimitErrors;
 import ai.docsite.translator.writer.DefaultLineStructureAdjuster;
 import ai.docsite.translator.writer.DefaultLineStructureAnalyzer;
-import dev.langchain4j.exception.RateLimitException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,7 +32,6 @@ import org.slf4j.LoggerFactory;
 public class TranslationService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TranslationService.class);
-    private static final Pattern RETRY_DELAY_PATTERN = Pattern.compile("(?:retry in |retryDelay\"?:\\s*\")([0-9]+(?:\\.[0-9]+)?)s", Pattern.CASE_INSENSITIVE);
 
     private final TranslatorFactory translatorFactory;
     private final LineStructureFormatter formatter;
@@ -30,7 +39,10 @@ public class TranslationService {
     private final int initialBackoffSeconds;
     private final int maxBackoffSeconds;
     private final double jitterFactor;
-    private final int maxFilesPerRun;
+    private final int translationConcurrency;
+    private final int segmentConcurrency;
+    private final SegmentMemory segmentMemory;
+    private final int batchTokenBudget;
 
     public TranslationService() {
         Translator production = new MockTranslator();
@@ -42,7 +54,10 @@ public class TranslationService {
         this.initialBackoffSeconds = 2;
         this.maxBackoffSeconds = 60;
         this.jitterFactor = 0.3;
-        this.maxFilesPerRun = 0;
+        this.translationConcurrency = 1;
+        this.segmentConcurrency = 1;
+        this.segmentMemory = SegmentMemory.DISABLED;
+        this.batchTokenBudget = 0;
     }
 
     public TranslationService(TranslatorFactory translatorFactory, LineStructureFormatter formatter) {
@@ -51,12 +66,45 @@ public class TranslationService {
 
     public TranslationService(TranslatorFactory translatorFactory, LineStructureFormatter formatter,
                               int maxRetryAttempts, int initialBackoffSeconds, int maxBackoffSeconds, double jitterFactor) {
-        this(translatorFactory, formatter, maxRetryAttempts, initialBackoffSeconds, maxBackoffSeconds, jitterFactor, 0);
+        this(translatorFactory, formatter, maxRetryAttempts, initialBackoffSeconds, maxBackoffSeconds, jitterFactor, 1, 1);
     }
 
+    /**
+     * @deprecated {@code maxFilesPerRun} no longer affects translation and is ignored; use
+     * {@link #TranslationService(TranslatorFactory, LineStructureFormatter, int, int, int, double)} instead
+     */
+    @Deprecated
     public TranslationService(TranslatorFactory translatorFactory, LineStructureFormatter formatter,
                               int maxRetryAttempts, int initialBackoffSeconds, int maxBackoffSeconds, double jitterFactor,
                               int maxFilesPerRun) {
+        this(translatorFactory, formatter, maxRetryAttempts, initialBackoffSeconds, maxBackoffSeconds, jitterFactor);
+    }
+
+    public TranslationService(TranslatorFactory translatorFactory, LineStructureFormatter formatter,
+                              int maxRetryAttempts, int initialBackoffSeconds, int maxBackoffSeconds, double jitterFactor,
+                              int translationConcurrency, int segmentConcurrency) {
+        this(translatorFactory, formatter, maxRetryAttempts, initialBackoffSeconds, maxBackoffSeconds, jitterFactor,
+                translationConcurrency, segmentConcurrency, TranslationMemory.disabled(), ParagraphMemory.disabled());
+    }
+
+    public TranslationService(TranslatorFactory translatorFactory, LineStructureFormatter formatter,
+                              int maxRetryAttempts, int initialBackoffSeconds, int maxBackoffSeconds, double jitterFactor,
+                              int translationConcurrency, int segmentConcurrency,
+                              TranslationMemory translationMemory, ParagraphMemory paragraphMemory) {
+        this(translatorFactory, formatter, maxRetryAttempts, initialBackoffSeconds, maxBackoffSeconds, jitterFactor,
+                translationConcurrency, segmentConcurrency, translationMemory, paragraphMemory, 0);
+    }
+
+    /**
+     * @param translationMemory cache of earlier segment translations consulted before production translations
+     * @param paragraphMemory index of known paragraph translations consulted and extended by production translations
+     * @param batchTokenBudget estimated source tokens per batched prompt combining small segments of different
+     *                         files; {@code 0} translates every segment with its own request
+     */
+    public TranslationService(TranslatorFactory translatorFactory, LineStructureFormatter formatter,
+                              int maxRetryAttempts, int initialBackoffSeconds, int maxBackoffSeconds, double jitterFactor,
+                              int translationConcurrency, int segmentConcurrency,
+                              TranslationMemory translationMemory, ParagraphMemory paragraphMemory, int batchTokenBudget) {
         this.translatorFactory = Objects.requireNonNull(translatorFactory, "translatorFactory");
         this.formatter = Objects.requireNonNull(formatter, "formatter");
         if (maxRetryAttempts < 1) {
@@ -71,14 +119,24 @@ public class TranslationService {
         if (jitterFactor < 0.0 || jitterFactor > 1.0) {
             throw new IllegalArgumentException("jitterFactor must be between 0.0 and 1.0");
         }
-        if (maxFilesPerRun < 0) {
-            throw new IllegalArgumentException("maxFilesPerRun must be at least 0");
+        if (translationConcurrency < 1) {
+            throw new IllegalArgumentException("translationConcurrency must be at least 1");
+        }
+        if (segmentConcurrency < 1) {
+            throw new IllegalArgumentException("segmentConcurrency must be at least 1");
+        }
+        if (batchTokenBudget < 0) {
+            throw new IllegalArgumentException("batchTokenBudget must be at least 0");
         }
         this.maxRetryAttempts = maxRetryAttempts;
         this.initialBackoffSeconds = initialBackoffSeconds;
         this.maxBackoffSeconds = maxBackoffSeconds;
         this.jitterFactor = jitterFactor;
-        this.maxFilesPerRun = maxFilesPerRun;
+        this.translationConcurrency = translationConcurrency;
+        this.segmentConcurrency = segmentConcurrency;
+        this.segmentMemory = new SegmentMemory(Objects.requireNonNull(translationMemory, "translationMemory"),
+                Objects.requireNonNull(paragraphMemory, "paragraphMemory"), Map.of());
+        this.batchTokenBudget = batchTokenBudget;
     }
 
     public TranslationOutcome translate(List<TranslationTask> tasks, TranslationMode mode) {
@@ -86,11 +144,18 @@ public class TranslationService {
             return new TranslationOutcome(List.of(), List.of());
         }
         Translator translator = translatorFactory.select(mode);
+        SegmentMemory memory = memoryFor(mode);
+        if (batchTokenBudget > 0 && tasks.size() > 1) {
+            memory = memory.withBatched(translateSmallSegmentsInBatches(tasks, translator, memory));
+        }
+        if (translationConcurrency > 1 && tasks.size() > 1) {
+            return translateConcurrently(tasks, translator, memory);
+        }
         List<TranslationResult> results = new ArrayList<>();
         List<String> failedFiles = new ArrayList<>();
         for (TranslationTask task : tasks) {
             try {
-                results.add(translateTask(task, translator));
+                results.add(translateTask(task, translator, memory));
             } catch (TranslationException ex) {
                 LOGGER.error("Translation failed for {}: {}", task.filePath(), ex.getMessage(), ex);
                 failedFiles.add(task.filePath());
@@ -99,42 +164,168 @@ public class TranslationService {
         return new TranslationOutcome(results, failedFiles);
     }
 
+    /**
+     * Translates each task on its own virtual thread while keeping at most {@code translationConcurrency}
+     * tasks in flight. Results and failures are collected in the order of the given tasks.
+     */
+    private TranslationOutcome translateConcurrently(List<TranslationTask> tasks, Translator translator,
+                                                     SegmentMemory memory) {
+        LOGGER.info("Translating {} files with up to {} concurrent tasks", tasks.size(), translationConcurrency);
+        Semaphore permits = new Semaphore(translationConcurrency);
+        List<TranslationResult> results = new ArrayList<>();
+        List<String> failedFiles = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<TranslationResult>> futures = new ArrayList<>(tasks.size());
+            for (TranslationTask task : tasks) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return translateTask(task, translator, memory);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                TranslationTask task = tasks.get(i);
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof TranslationException translationException) {
+                        LOGGER.error("Translation failed for {}: {}", task.filePath(), translationException.getMessage(), translationException);
+                        failedFiles.add(task.filePath());
+                        continue;
+                    }
+                    executor.shutdownNow();
+                    if (cause instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    if (cause instanceof Error error) {
+                        throw error;
+                    }
+                    throw new TranslationException("Translation failed for " + task.filePath(), cause);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    executor.shutdownNow();
+                    throw new TranslationException("Translation interrupted", ex);
+                }
+            }
+        }
+        return new TranslationOutcome(results, failedFiles);
+    }
+
+    /**
+     * Packs small segments of different files into shared prompts of at most {@code batchTokenBudget} estimated
+     * source tokens. Returns raw translations keyed by source lines; segments left out of a batch, or that the
+     * translator could not map back, are translated individually afterwards.
+     */
+    private Map<List<String>, List<String>> translateSmallSegmentsInBatches(List<TranslationTask> tasks, Translator translator,
+                                                                            SegmentMemory memory) {
+        List<List<List<String>>> batches = new ArrayList<>();
+        List<List<String>> current = new ArrayList<>();
+        int currentTokens = 0;
+        Set<List<String>> seen = new HashSet<>();
+        for (TranslationTask task : tasks) {
+            for (TranslationSegment segment : task.segments()) {
+                List<String> source = List.copyOf(task.sourceLines().subList(segment.startLine(), segment.endLineExclusive()));
+                int tokens = TokenEstimator.estimate(source);
+                if (source.isEmpty() || tokens * 2 > batchTokenBudget || source.get(0).strip().equals("---")
+                        || !seen.add(source) || memory.isKnown(source)) {
+                    continue;
+                }
+                if (currentTokens + tokens > batchTokenBudget) {
+                    batches.add(current);
+                    current = new ArrayList<>();
+                    currentTokens = 0;
+                }
+                current.add(source);
+                currentTokens += tokens;
+            }
+        }
+        batches.add(current);
+        batches.removeIf(batch -> batch.size() < 2);
+        if (batches.isEmpty()) {
+            return Map.of();
+        }
+        LOGGER.info("Translating {} small segments in {} batched requests",
+                batches.stream().mapToInt(List::size).sum(), batches.size());
+
+        Map<List<String>, List<String>> translated = new HashMap<>();
+        Semaphore permits = new Semaphore(translationConcurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<List<List<String>>>> futures = new ArrayList<>(batches.size());
+            for (List<List<String>> batch : batches) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return translateBatch(translator, batch);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (int i = 0; i < batches.size(); i++) {
+                List<List<String>> batch = batches.get(i);
+                List<List<String>> results;
+                try {
+                    results = futures.get(i).get();
+                } catch (ExecutionException ex) {
+                    executor.shutdownNow();
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    if (cause instanceof Error error) {
+                        throw error;
+                    }
+                    throw new TranslationException("Batch translation failed", cause);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    executor.shutdownNow();
+                    throw new TranslationException("Translation interrupted", ex);
+                }
+                for (int j = 0; j < batch.size() && j < results.size(); j++) {
+                    if (!results.get(j).isEmpty()) {
+                        translated.put(batch.get(j), results.get(j));
+                    }
+                }
+            }
+        }
+        LOGGER.info("Batched requests returned translations for {} segments", translated.size());
+        return translated;
+    }
+
+    private List<List<String>> translateBatch(Translator translator, List<List<String>> batch) {
+        try {
+            return translateWithRetry(() -> translator.translateBatch(batch));
+        } catch (TranslationException ex) {
+            LOGGER.warn("Batched translation of {} segments failed; translating them individually: {}", batch.size(), ex.getMessage());
+            return List.of();
+        }
+    }
+
     public TranslationResult translateTask(TranslationTask task, TranslationMode mode) {
-        return translateTask(task, translatorFactory.select(mode));
+        return translateTask(task, translatorFactory.select(mode), memoryFor(mode));
     }
 
-    private TranslationResult translateTask(TranslationTask task, Translator translator) {
+    private SegmentMemory memoryFor(TranslationMode mode) {
+        return mode == TranslationMode.PRODUCTION ? segmentMemory : SegmentMemory.DISABLED;
+    }
+
+    private TranslationResult translateTask(TranslationTask task, Translator translator, SegmentMemory memory) {
         List<String> translated = new ArrayList<>(task.existingTranslationLines());
         ensureCapacity(translated, task.sourceLines().size());
 
         List<TranslationSegment> segments = new ArrayList<>(task.segments());
         segments.sort(Comparator.comparingInt(TranslationSegment::startLine));
 
-        for (TranslationSegment segment : segments) {
-            LOGGER.info("Translating {} lines {}-{}", task.filePath(), segment.startLine(), segment.endLineExclusive());
-            List<String> sourceSlice = new ArrayList<>(task.sourceLines().subList(segment.startLine(), segment.endLineExclusive()));
-            List<String> rawTranslation = translateWithRetry(translator, sourceSlice);
-            LOGGER.info("Translator returned {} lines for {} segment {}-{}", rawTranslation.size(), task.filePath(), segment.startLine(), segment.endLineExclusive());
-            if (!rawTranslation.isEmpty()) {
-            LOGGER.debug("Translation output for {} segment {}-{}:\n{}", task.filePath(), segment.startLine(), segment.endLineExclusive(), String.join("\n", rawTranslation));
-            }
-            List<String> formatted;
-            if (rawTranslation.size() == sourceSlice.size()) {
-                formatted = new ArrayList<>(rawTranslation);
-            } else {
-                formatted = formatter.format(sourceSlice, rawTranslation);
-                if (formatted.size() != sourceSlice.size()) {
-                    LOGGER.warn("Formatted output line count {} does not match source {} for {} segment {}-{}; falling back to normalized translation", formatted.size(), sourceSlice.size(), task.filePath(), segment.startLine(), segment.endLineExclusive());
-                    formatted = normalizeTranslation(rawTranslation, sourceSlice.size());
-                }
-            }
-            LOGGER.debug("Formatted output for {} segment {}-{}:\n{}", task.filePath(), segment.startLine(), segment.endLineExclusive(), String.join("\n", formatted));
-            boolean emptyOutput = formatted.isEmpty() || formatted.stream().allMatch(String::isBlank);
-            if (emptyOutput) {
-                LOGGER.warn("Received blank translation for {} segment {}-{}; falling back to source", task.filePath(), segment.startLine(), segment.endLineExclusive());
-                formatted = sourceSlice;
-            }
-            replaceRange(translated, segment.startLine(), segment.endLineExclusive(), formatted);
+        List<List<String>> translatedSegments = segmentConcurrency > 1 && segments.size() > 1
+                ? translateSegmentsConcurrently(task, translator, memory, segments)
+                : translateSegmentsSequentially(task, translator, memory, segments);
+        for (int i = 0; i < segments.size(); i++) {
+            TranslationSegment segment = segments.get(i);
+            replaceRange(translated, segment.startLine(), segment.endLineExclusive(), translatedSegments.get(i));
         }
 
         ensureCapacity(translated, task.sourceLines().size());
@@ -144,6 +335,111 @@ public class TranslationService {
         return new TranslationResult(task.filePath(), List.copyOf(translated));
     }
 
+    private List<List<String>> translateSegmentsSequentially(TranslationTask task, Translator translator,
+                                                             SegmentMemory memory, List<TranslationSegment> segments) {
+        List<List<String>> translatedSegments = new ArrayList<>(segments.size());
+        for (TranslationSegment segment : segments) {
+            translatedSegments.add(translateSegment(task, translator, memory, segment));
+        }
+        return translatedSegments;
+    }
+
+    /**
+     * Dispatches the segments of a single task concurrently. Segments never overlap and each translation is
+     * normalized to the segment length, so the caller can splice the results back in {@code startLine} order.
+     */
+    private List<List<String>> translateSegmentsConcurrently(TranslationTask task, Translator translator,
+                                                             SegmentMemory memory, List<TranslationSegment> segments) {
+        LOGGER.info("Translating {} segments of {} with up to {} concurrent requests",
+                segments.size(), task.filePath(), segmentConcurrency);
+        Semaphore permits = new Semaphore(segmentConcurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<List<String>>> futures = new ArrayList<>(segments.size());
+            for (TranslationSegment segment : segments) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return translateSegment(task, translator, memory, segment);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            List<List<String>> translatedSegments = new ArrayList<>(segments.size());
+            for (Future<List<String>> future : futures) {
+                try {
+                    translatedSegments.add(future.get());
+                } catch (ExecutionException ex) {
+                    executor.shutdownNow();
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    if (cause instanceof Error error) {
+                        throw error;
+                    }
+                    throw new TranslationException("Translation failed for " + task.filePath(), cause);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    executor.shutdownNow();
+                    throw new TranslationException("Translation interrupted", ex);
+                }
+            }
+            return translatedSegments;
+        }
+    }
+
+    private List<String> translateSegment(TranslationTask task, Translator translator, SegmentMemory memory,
+                                          TranslationSegment segment) {
+        List<String> sourceSlice = new ArrayList<>(task.sourceLines().subList(segment.startLine(), segment.endLineExclusive()));
+        Optional<List<String>> remembered = memory.translations().lookup(sourceSlice);
+        if (remembered.isPresent()) {
+            LOGGER.info("Reusing translation memory for {} lines {}-{}", task.filePath(), segment.startLine(), segment.endLineExclusive());
+            return new ArrayList<>(remembered.get());
+        }
+        Optional<List<String>> knownParagraphs = memory.paragraphs().lookup(sourceSlice);
+        if (knownParagraphs.isPresent()) {
+            LOGGER.info("Reusing known paragraph translations for {} lines {}-{}", task.filePath(), segment.startLine(), segment.endLineExclusive());
+            return new ArrayList<>(knownParagraphs.get());
+        }
+        LOGGER.info("Translating {} lines {}-{}", task.filePath(), segment.startLine(), segment.endLineExclusive());
+        List<String> rawTranslation = memory.batched().get(sourceSlice);
+        if (rawTranslation == null) {
+            rawTranslation = translateWithRetry(() -> translator.translate(sourceSlice));
+        }
+        LOGGER.info("Translator returned {} lines for {} segment {}-{}", rawTranslation.size(), task.filePath(), segment.startLine(), segment.endLineExclusive());
+        if (!rawTranslation.isEmpty()) {
+        LOGGER.debug("Translation output for {} segment {}-{}:\n{}", task.filePath(), segment.startLine(), segment.endLineExclusive(), String.join("\n", rawTranslation));
+        }
+        List<String> formatted;
+        // the formatter pads missing lines with blanks, so a cut-off translation still comes out at full length
+        boolean wellFormed = formatter.coversSource(sourceSlice, rawTranslation);
+        if (!wellFormed) {
+            LOGGER.warn("Translator returned {} lines for {} source lines of {} segment {}-{}; the result is not remembered", rawTranslation.size(), sourceSlice.size(), task.filePath(), segment.startLine(), segment.endLineExclusive());
+        }
+        if (rawTranslation.size() == sourceSlice.size()) {
+            formatted = new ArrayList<>(rawTranslation);
+        } else {
+            formatted = formatter.format(sourceSlice, rawTranslation);
+            if (formatted.size() != sourceSlice.size()) {
+                LOGGER.warn("Formatted output line count {} does not match source {} for {} segment {}-{}; falling back to normalized translation", formatted.size(), sourceSlice.size(), task.filePath(), segment.startLine(), segment.endLineExclusive());
+                formatted = normalizeTranslation(rawTranslation, sourceSlice.size());
+            }
+        }
+        LOGGER.debug("Formatted output for {} segment {}-{}:\n{}", task.filePath(), segment.startLine(), segment.endLineExclusive(), String.join("\n", formatted));
+        boolean emptyOutput = formatted.isEmpty() || formatted.stream().allMatch(String::isBlank);
+        if (emptyOutput) {
+            LOGGER.warn("Received blank translation for {} segment {}-{}; falling back to source", task.filePath(), segment.startLine(), segment.endLineExclusive());
+            return sourceSlice;
+        }
+        if (wellFormed) {
+            // padded or truncated output is kept for this run only, so a later run asks the model again
+            memory.translations().store(sourceSlice, formatted);
+            memory.paragraphs().index(sourceSlice, formatted);
+        }
+        return formatted;
+    }
+
     private void ensureCapacity(List<String> target, int size) {
         while (target.size() < size) {
             target.add("");
@@ -174,16 +470,16 @@ public class TranslationService {
         return normalized;
     }
 
-    private List<String> translateWithRetry(Translator translator, List<String> sourceLines) {
+    private <T> T translateWithRetry(Supplier<T> call) {
         TranslationException lastFailure = null;
         for (int attempt = 0; attempt < maxRetryAttempts; attempt++) {
             try {
-                return translator.translate(sourceLines);
+                return call.get();
             } catch (TranslationException ex) {
                 lastFailure = ex;
                 Optional<Duration> maybeDelay = calculateRetryDelay(ex, attempt);
                 if (maybeDelay.isEmpty() || attempt == maxRetryAttempts - 1) {
-                    if (isRateLimitError(ex)) {
+                    if (RateLimitErrors.isRateLimitError(ex)) {
                         LOGGER.error("Translation rate limited; max retries ({}) exceeded", maxRetryAttempts);
                     }
                     throw ex;
@@ -204,22 +500,15 @@ public class TranslationService {
     }
 
     private Optional<Duration> calculateRetryDelay(Throwable throwable, int attemptNumber) {
-        if (!isRateLimitError(throwable)) {
+        if (!RateLimitErrors.isRateLimitError(throwable)) {
             return Optional.empty();
         }
 
         // First check if provider returned a retry-after value
-        Optional<Duration> providerDelay = extractProviderRetryAfter(throwable);
+        Optional<Duration> providerDelay = RateLimitErrors.extractRetryAfter(throwable);
         if (providerDelay.isPresent()) {
-            Duration baseDelay = providerDelay.get();
-            // If maxFilesPerRun is set (> 0), multiply the delay by that value
-            // This ensures we wait long enough for multiple files to be processed
-            if (maxFilesPerRun > 0) {
-                long multipliedMillis = baseDelay.toMillis() * maxFilesPerRun;
-                LOGGER.debug("Provider requested {}s delay; multiplying by maxFilesPerRun={} to get {}s",
-                        baseDelay.toSeconds(), maxFilesPerRun, multipliedMillis / 1000);
-                return Optional.of(Duration.ofMillis(multipliedMillis));
-            }
+            // the shared rate limiter holds every caller for the same delay, and both waits start at the rejection,
+            // so waiting exactly this long lets the retry through as soon as the hold ends
             return providerDelay;
         }
 
@@ -237,39 +526,6 @@ public class TranslationService {
         return Optional.of(Duration.ofSeconds(finalDelaySeconds));
     }
 
-    private boolean isRateLimitError(Throwable throwable) {
-        Throwable cause = throwable;
-        while (cause != null) {
-            if (cause instanceof RateLimitException) {
-                return true;
-            }
-            String message = cause.getMessage();
-            if (message != null && (message.contains("RESOURCE_EXHAUSTED") || message.contains("429"))) {
-                return true;
-            }
-            cause = cause.getCause();
-        }
-        return false;
-    }
-
-    private Optional<Duration> extractProviderRetryAfter(Throwable throwable) {
-        String message = throwable.getMessage();
-        if (message == null) {
-            return Optional.empty();
-        }
-        Matcher matcher = RETRY_DELAY_PATTERN.matcher(message);
-        if (matcher.find()) {
-            try {
-                double seconds = Double.parseDouble(matcher.group(1));
-                long millis = Math.max(0, (long) (seconds * 1000));
-                return Optional.of(Duration.ofMillis(millis));
-            } catch (NumberFormatException ignored) {
-                // fall through
-            }
-        }
-        return Optional.empty();
-    }
-
     public TranslationSummary translateAll(DiffMetadata metadata) {
         int size = metadata == null ? 0 : metadata.changes().size();
         LOGGER.info("Preparing translation jobs for {} files (pipeline stub)", size);
@@ -277,4 +533,22 @@ public class TranslationService {
     }
 
     public record TranslationSummary(int processedFiles) { }
+
+    /**
+     * Translations available for a segment without a dedicated translator call: the persistent memories and the
+     * raw results of this run's batched requests, keyed by source lines.
+     */
+    private record SegmentMemory(TranslationMemory translations, ParagraphMemory paragraphs,
+                                 Map<List<String>, List<String>> batched) {
+        private static final SegmentMemory DISABLED =
+                new SegmentMemory(TranslationMemory.disabled(), ParagraphMemory.disabled(), Map.of());
+
+        SegmentMemory withBatched(Map<List<String>, List<String>> batchedTranslations) {
+            return new SegmentMemory(translations, paragraphs, Map.copyOf(batchedTranslations));
+        }
+
+        boolean isKnown(List<String> sourceLines) {
+            return translations.lookup(sourceLines).isPresent() || paragraphs.lookup(sourceLines).isPresent();
+        }
+    }
 }
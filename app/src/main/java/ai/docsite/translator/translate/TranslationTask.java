@@ -14,17 +14,39 @@ public class TranslationTask {
     private final List<String> sourceLines;
     private final List<String> existingTranslationLines;
     private final List<TranslationSegment> segments;
+    private final boolean carriedOver;
 
     public TranslationTask(String filePath,
                            List<String> sourceLines,
                            List<String> existingTranslationLines,
                            List<TranslationSegment> segments) {
+        this(filePath, sourceLines, existingTranslationLines, segments, false);
+    }
+
+    private TranslationTask(String filePath,
+                            List<String> sourceLines,
+                            List<String> existingTranslationLines,
+                            List<TranslationSegment> segments,
+                            boolean carriedOver) {
         this.filePath = Objects.requireNonNull(filePath, "filePath");
-        this.sourceLines = List.copyOf(Objects.requireNonNull(sourceLines, "sourceLines"));
+        Objects.requireNonNull(sourceLines, "sourceLines");
+        // lazily decoded source lines are immutable already, and copying them would decode the whole document
+        this.sourceLines = sourceLines instanceof SourceText.Lines ? sourceLines : List.copyOf(sourceLines);
         this.existingTranslationLines = existingTranslationLines == null
                 ? Collections.emptyList()
                 : List.copyOf(existingTranslationLines);
         this.segments = segments == null ? List.of() : List.copyOf(segments);
+        this.carriedOver = carriedOver;
+    }
+
+    /**
+     * Creates a task that writes {@code existingTranslationLines} to {@code filePath} without translating any
+     * segment, used when a renamed document keeps its previous translation unchanged.
+     */
+    public static TranslationTask carriedOver(String filePath,
+                                              List<String> sourceLines,
+                                              List<String> existingTranslationLines) {
+        return new TranslationTask(filePath, sourceLines, existingTranslationLines, List.of(), true);
     }
 
     public String filePath() {
@@ -40,7 +62,7 @@ public class TranslationTask {
     }
 
     public List<TranslationSegment> segments() {
-        if (segments.isEmpty()) {
+        if (segments.isEmpty() && !carriedOver) {
             return List.of(new TranslationSegment(0, sourceLines.size()));
         }
         return segments;
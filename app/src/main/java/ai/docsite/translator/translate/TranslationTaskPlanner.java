@@ -3,32 +3,26 @@ package ai.docsite.translator.translate;
 import ai.docsite.translator.diff.ChangeCategory;
 import ai.docsite.translator.diff.DiffMetadata;
 import ai.docsite.translator.diff.FileChange;
+import ai.docsite.translator.diff.SourceBlobs;
 import ai.docsite.translator.git.GitWorkflowResult;
 import ai.docsite.translator.translate.conflict.ConflictDetector;
-import java.io.BufferedReader;
+import ai.docsite.translator.translate.memory.DecisionMemory;
+import ai.docsite.translator.translate.memory.ParagraphMemory;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.UncheckedIOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 import org.eclipse.jgit.diff.DiffAlgorithm;
 import org.eclipse.jgit.diff.Edit;
 import org.eclipse.jgit.diff.EditList;
-import org.eclipse.jgit.diff.RawText;
-import org.eclipse.jgit.diff.RawTextComparator;
-import org.eclipse.jgit.lib.ObjectId;
-import org.eclipse.jgit.lib.ObjectLoader;
-import org.eclipse.jgit.lib.Repository;
-import org.eclipse.jgit.revwalk.RevCommit;
-import org.eclipse.jgit.revwalk.RevWalk;
-import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
-import org.eclipse.jgit.treewalk.TreeWalk;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,17 +34,83 @@ public class TranslationTaskPlanner {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TranslationTaskPlanner.class);
     private static final int MAX_SEGMENT_LINES = 120;
+    private static final String CONFLICT_MARKER = "<<<<<<<";
 
     private final TranslationDecisionService decisionService;
+    private final ChangeClassifier changeClassifier = new ChangeClassifier();
     private final TranslationMode translationMode;
+    private final ParagraphMemory paragraphMemory;
+    private final int segmentTokenBudget;
+    private final int planningConcurrency;
 
     public TranslationTaskPlanner() {
         this(null, TranslationMode.PRODUCTION);
     }
 
     public TranslationTaskPlanner(dev.langchain4j.model.chat.ChatModel chatModel, TranslationMode translationMode) {
-        this.decisionService = chatModel != null ? new TranslationDecisionService(chatModel) : null;
+        this(chatModel, translationMode, ParagraphMemory.disabled());
+    }
+
+    /**
+     * @param paragraphMemory index fed with the paragraphs of every existing translation that is line-aligned
+     *                        with its base upstream source
+     */
+    public TranslationTaskPlanner(dev.langchain4j.model.chat.ChatModel chatModel, TranslationMode translationMode,
+                                  ParagraphMemory paragraphMemory) {
+        this(chatModel, translationMode, paragraphMemory, 0);
+    }
+
+    /**
+     * @param segmentTokenBudget estimated source tokens per segment; segments are then split at Markdown block
+     *                           boundaries instead of every {@value #MAX_SEGMENT_LINES} lines. 0 keeps the fixed
+     *                           line split.
+     */
+    public TranslationTaskPlanner(dev.langchain4j.model.chat.ChatModel chatModel, TranslationMode translationMode,
+                                  ParagraphMemory paragraphMemory, int segmentTokenBudget) {
+        this(chatModel, translationMode, paragraphMemory, segmentTokenBudget, 1);
+    }
+
+    /**
+     * @param planningConcurrency number of files planned at the same time, including their translation decision
+     *                            calls; 1 plans the files one after another
+     */
+    public TranslationTaskPlanner(dev.langchain4j.model.chat.ChatModel chatModel, TranslationMode translationMode,
+                                  ParagraphMemory paragraphMemory, int segmentTokenBudget, int planningConcurrency) {
+        this(chatModel, translationMode, paragraphMemory, segmentTokenBudget, planningConcurrency, DecisionPromptMode.FULL, 0);
+    }
+
+    /**
+     * @param decisionPromptMode     content sent to the LLM for translation decisions
+     * @param decisionMaxInputTokens estimated token cap for that content; 0 means no cap
+     */
+    public TranslationTaskPlanner(dev.langchain4j.model.chat.ChatModel chatModel, TranslationMode translationMode,
+                                  ParagraphMemory paragraphMemory, int segmentTokenBudget, int planningConcurrency,
+                                  DecisionPromptMode decisionPromptMode, int decisionMaxInputTokens) {
+        this(chatModel, translationMode, paragraphMemory, segmentTokenBudget, planningConcurrency, decisionPromptMode,
+                decisionMaxInputTokens, DecisionMemory.disabled());
+    }
+
+    /**
+     * @param decisionMemory cache of earlier LLM decisions keyed by the upstream blob ids of both versions
+     */
+    public TranslationTaskPlanner(dev.langchain4j.model.chat.ChatModel chatModel, TranslationMode translationMode,
+                                  ParagraphMemory paragraphMemory, int segmentTokenBudget, int planningConcurrency,
+                                  DecisionPromptMode decisionPromptMode, int decisionMaxInputTokens,
+                                  DecisionMemory decisionMemory) {
+        if (segmentTokenBudget < 0) {
+            throw new IllegalArgumentException("segmentTokenBudget must be at least 0");
+        }
+        if (planningConcurrency < 1) {
+            throw new IllegalArgumentException("planningConcurrency must be at least 1");
+        }
+        this.decisionService = chatModel != null
+                ? new TranslationDecisionService(chatModel, decisionPromptMode, decisionMaxInputTokens,
+                        Objects.requireNonNull(decisionMemory, "decisionMemory"))
+                : null;
         this.translationMode = translationMode;
+        this.paragraphMemory = Objects.requireNonNull(paragraphMemory, "paragraphMemory");
+        this.segmentTokenBudget = segmentTokenBudget;
+        this.planningConcurrency = planningConcurrency;
     }
 
     public PlanResult planWithDiagnostics(GitWorkflowResult workflowResult, int maxFilesPerRun) {
@@ -66,130 +126,297 @@ public class TranslationTaskPlanner {
         int limit = maxFilesPerRun <= 0 ? Integer.MAX_VALUE : maxFilesPerRun;
         ConflictDetector conflictDetector = new ConflictDetector();
 
-        for (FileChange change : metadata.changes()) {
-            if (tasks.size() >= limit) {
-                break;
-            }
-            if (change.category() == ChangeCategory.NON_DOCUMENT) {
-                continue;
+        List<FileChange> documentChanges = metadata.changes().stream()
+                .filter(change -> change.category() != ChangeCategory.NON_DOCUMENT)
+                .toList();
+
+        try (PlanningSession session = new PlanningSession()) {
+            preload(session, workflowResult, documentChanges);
+            int next = 0;
+            while (next < documentChanges.size() && tasks.size() < limit) {
+                // never plan more files than could still become tasks, so the limit selects the same files as a
+                // sequential run would
+                int waveSize = Math.min(planningConcurrency, Math.min(limit - tasks.size(), documentChanges.size() - next));
+                List<FileChange> wave = documentChanges.subList(next, next + waveSize);
+                next += waveSize;
+                prefetch(session, workflowResult, wave);
+                for (FilePlan filePlan : planWave(wave, workflowResult, session, conflictDetector)) {
+                    if (filePlan.task() != null) {
+                        tasks.add(filePlan.task());
+                    }
+                    if (filePlan.conflictFile() != null) {
+                        conflictFiles.add(filePlan.conflictFile());
+                    }
+                    if (filePlan.upstreamReadFailure() != null) {
+                        upstreamReadFailures.add(filePlan.upstreamReadFailure());
+                    }
+                }
             }
+        }
+        return new PlanResult(List.copyOf(tasks), List.copyOf(conflictFiles), List.copyOf(upstreamReadFailures));
+    }
 
-            List<String> upstreamLines;
-            try {
-                upstreamLines = readLinesAtCommit(workflowResult.upstreamDirectory(), workflowResult.targetCommitSha(), change.path());
-            } catch (IOException ex) {
-                LOGGER.warn("Skipping {} due to upstream read failure: {}", change.path(), ex.getMessage());
-                upstreamReadFailures.add(change.path());
-                continue;
+    /**
+     * Plans the given changes, concurrently when there is more than one, and returns their plans in the given
+     * order.
+     */
+    private List<FilePlan> planWave(List<FileChange> wave, GitWorkflowResult workflowResult, PlanningSession session,
+                                    ConflictDetector conflictDetector) {
+        if (wave.size() == 1) {
+            return List.of(planChange(wave.get(0), workflowResult, session, conflictDetector));
+        }
+        List<FilePlan> plans = new ArrayList<>(wave.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<FilePlan>> futures = new ArrayList<>(wave.size());
+            for (FileChange change : wave) {
+                futures.add(executor.submit(() -> planChange(change, workflowResult, session, conflictDetector)));
             }
-            if (upstreamLines.isEmpty()) {
-                // File removed or not present in upstream commit, nothing to translate.
-                continue;
+            for (Future<FilePlan> future : futures) {
+                try {
+                    plans.add(future.get());
+                } catch (ExecutionException ex) {
+                    executor.shutdownNow();
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    if (cause instanceof Error error) {
+                        throw error;
+                    }
+                    throw new IllegalStateException("Planning failed", cause);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    executor.shutdownNow();
+                    throw new IllegalStateException("Planning interrupted", ex);
+                }
             }
+        }
+        return plans;
+    }
 
-            if (conflictDetector.detect(upstreamLines).isPresent()) {
-                LOGGER.warn("Detected unresolved merge conflict markers in {}; skipping automatic translation", change.path());
-                conflictFiles.add(change.path());
-                continue;
-            }
+    private FilePlan planChange(FileChange change, GitWorkflowResult workflowResult, PlanningSession session,
+                                ConflictDetector conflictDetector) {
+        SourceText upstreamText;
+        try {
+            upstreamText = session.readText(workflowResult.upstreamDirectory(), workflowResult.targetCommitSha(), change.path());
+        } catch (IOException ex) {
+            LOGGER.warn("Skipping {} due to upstream read failure: {}", change.path(), ex.getMessage());
+            return FilePlan.upstreamReadFailure(change.path());
+        }
+        if (upstreamText.size() == 0) {
+            // File removed or not present in upstream commit, nothing to translate.
+            return FilePlan.NONE;
+        }
+        // decoded line by line on access, so only the lines that are looked at are ever turned into strings
+        List<String> upstreamLines = upstreamText.lines();
 
-            List<String> baseSourceLines;
-            try {
-                baseSourceLines = readLinesAtCommit(workflowResult.upstreamDirectory(), workflowResult.baseUpstreamCommitSha(), change.path());
-            } catch (IOException ex) {
-                LOGGER.warn("Failed to read base upstream content for {}: {}", change.path(), ex.getMessage());
-                baseSourceLines = List.of();
-            }
+        if (upstreamText.hasLineStartingWith(CONFLICT_MARKER) && conflictDetector.detect(upstreamLines).isPresent()) {
+            LOGGER.warn("Detected unresolved merge conflict markers in {}; skipping automatic translation", change.path());
+            return FilePlan.conflict(change.path());
+        }
 
-            List<String> existingTranslationLines;
-            try {
-                existingTranslationLines = readLinesAtCommit(workflowResult.originDirectory(), workflowResult.originBaseCommitSha(), change.path());
-            } catch (IOException ex) {
-                LOGGER.warn("Failed to read existing translation for {}: {}", change.path(), ex.getMessage());
-                existingTranslationLines = List.of();
-            }
+        // a renamed document is compared with the source and translation at its previous path
+        String basePath = change.previousPath().orElse(change.path());
+        List<String> existingTranslationLines = readExistingTranslation(workflowResult, session, basePath);
+        if (!basePath.equals(change.path()) && existingTranslationLines.isEmpty()) {
+            LOGGER.debug("No translation to carry over from {} to {}", basePath, change.path());
+            basePath = change.path();
+            existingTranslationLines = readExistingTranslation(workflowResult, session, basePath);
+        }
+        boolean renamed = !basePath.equals(change.path());
 
-            // Use LLM to decide if translation is needed (if in production mode and decision service available)
-            boolean shouldTranslate = true;
-            if (decisionService != null && translationMode == TranslationMode.PRODUCTION) {
-                shouldTranslate = decisionService.shouldTranslate(change.path(), baseSourceLines, upstreamLines);
-            }
+        SourceText baseSourceText;
+        try {
+            baseSourceText = session.readText(workflowResult.upstreamDirectory(), workflowResult.baseUpstreamCommitSha(), basePath);
+        } catch (IOException ex) {
+            LOGGER.warn("Failed to read base upstream content for {}: {}", basePath, ex.getMessage());
+            baseSourceText = SourceText.EMPTY;
+        }
 
-            if (!shouldTranslate) {
-                LOGGER.info("Skipping translation for {} based on LLM decision", change.path());
-                continue;
-            }
+        // blob ids resolved during diff analysis describe the previous path of a rename, not a fallback to the new one
+        Optional<SourceBlobs> sourceBlobs = basePath.equals(change.previousPath().orElse(change.path()))
+                ? workflowResult.diffMetadata().sourceBlobs(change.path())
+                : Optional.empty();
+        EditList edits = edits(session, sourceBlobs, baseSourceText, upstreamText);
+        indexEditedParagraphs(baseSourceText, existingTranslationLines, edits);
 
-            TranslationTask task = planFromDiff(change.path(), baseSourceLines, existingTranslationLines, upstreamLines);
-            if (task != null) {
-                tasks.add(task);
-            }
+        if (renamed) {
+            // the previous translation has to move to the new path either way, so only the changed hunks are
+            // translated and no decision is needed
+            LOGGER.info("Carrying translation of {} over to renamed {} ({} changed hunk(s))", basePath, change.path(), edits.size());
+            TranslationTask task = planFromDiff(change.path(), existingTranslationLines, upstreamLines, edits);
+            return new FilePlan(task != null ? task
+                    : TranslationTask.carriedOver(change.path(), upstreamLines,
+                            alignExistingLines(existingTranslationLines, upstreamLines, edits)), null, null);
         }
-        return new PlanResult(List.copyOf(tasks), List.copyOf(conflictFiles), List.copyOf(upstreamReadFailures));
+
+        // Use LLM to decide if translation is needed (if in production mode and decision service available)
+        boolean shouldTranslate = true;
+        if (decisionService != null && translationMode == TranslationMode.PRODUCTION) {
+            shouldTranslate = shouldTranslate(change.path(), baseSourceText, upstreamText, edits, sourceBlobs,
+                    workflowResult, session);
+        }
+
+        if (!shouldTranslate) {
+            return FilePlan.NONE;
+        }
+
+        TranslationTask task = planFromDiff(change.path(), existingTranslationLines, upstreamLines, edits);
+        return task == null ? FilePlan.NONE : new FilePlan(task, null, null);
+    }
+
+    private List<String> readExistingTranslation(GitWorkflowResult workflowResult, PlanningSession session, String filePath) {
+        try {
+            return session.readLines(workflowResult.originDirectory(), workflowResult.originBaseCommitSha(), filePath);
+        } catch (IOException ex) {
+            LOGGER.warn("Failed to read existing translation for {}: {}", filePath, ex.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Resolves the blob ids of every changed document up front; the blobs themselves are only read by
+     * {@link #prefetch} for the files that are actually planned. Failures are not fatal: the per-file reads
+     * then resolve each path on their own and report errors for the affected file only.
+     */
+    private void preload(PlanningSession session, GitWorkflowResult workflowResult, List<FileChange> documentChanges) {
+        List<String> paths = paths(documentChanges);
+        List<String> basePaths = basePaths(documentChanges);
+        try {
+            session.preload(workflowResult.upstreamDirectory(), workflowResult.targetCommitSha(), paths);
+            session.preload(workflowResult.upstreamDirectory(), workflowResult.baseUpstreamCommitSha(), basePaths);
+            session.preload(workflowResult.originDirectory(), workflowResult.originBaseCommitSha(), basePaths);
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.debug("Bulk preload of {} paths failed, falling back to per-file reads: {}", paths.size(), ex.getMessage());
+        }
+    }
+
+    private void prefetch(PlanningSession session, GitWorkflowResult workflowResult, List<FileChange> wave) {
+        List<String> paths = paths(wave);
+        List<String> basePaths = basePaths(wave);
+        try {
+            session.prefetch(workflowResult.upstreamDirectory(), workflowResult.targetCommitSha(), paths);
+            session.prefetch(workflowResult.upstreamDirectory(), workflowResult.baseUpstreamCommitSha(), basePaths);
+            session.prefetch(workflowResult.originDirectory(), workflowResult.originBaseCommitSha(), basePaths);
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.debug("Batched read of {} paths failed, falling back to per-file reads: {}", paths.size(), ex.getMessage());
+        }
+    }
+
+    private static List<String> paths(List<FileChange> changes) {
+        return changes.stream()
+                .map(FileChange::path)
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Paths read from the base commits: renamed documents are also read at their previous path.
+     */
+    private static List<String> basePaths(List<FileChange> changes) {
+        return changes.stream()
+                .flatMap(change -> Stream.concat(Stream.of(change.path()), change.previousPath().stream()))
+                .distinct()
+                .toList();
     }
 
     public List<TranslationTask> plan(GitWorkflowResult workflowResult, int maxFilesPerRun) {
         return planWithDiagnostics(workflowResult, maxFilesPerRun).tasks();
     }
 
+    /**
+     * Decides obvious cases locally and asks the LLM only about the remaining, ambiguous diffs.
+     */
+    private boolean shouldTranslate(String filePath, SourceText baseText, SourceText newText, EditList edits,
+                                    Optional<SourceBlobs> sourceBlobs, GitWorkflowResult workflowResult,
+                                    PlanningSession session) {
+        ChangeClassifier.Classification classification = changeClassifier.classify(baseText, newText, edits);
+        switch (classification.verdict()) {
+            case TRANSLATE -> {
+                LOGGER.debug("Translating {} without LLM decision: {}", filePath, classification.reason());
+                return true;
+            }
+            case SKIP -> {
+                LOGGER.info("Skipping translation for {}: {}", filePath, classification.reason());
+                return false;
+            }
+            default -> {
+                String baseBlobId = sourceBlobs.flatMap(SourceBlobs::baseBlobId)
+                        .orElseGet(() -> blobId(session, workflowResult, workflowResult.baseUpstreamCommitSha(), filePath));
+                String newBlobId = sourceBlobs.flatMap(SourceBlobs::newBlobId)
+                        .orElseGet(() -> blobId(session, workflowResult, workflowResult.targetCommitSha(), filePath));
+                boolean translate = decisionService.shouldTranslate(filePath, baseText, newText, edits,
+                        baseBlobId, newBlobId);
+                if (!translate) {
+                    LOGGER.info("Skipping translation for {} based on LLM decision", filePath);
+                }
+                return translate;
+            }
+        }
+    }
+
+    /**
+     * Teaches the paragraph memory the existing translation of the base paragraphs around each edit, which are
+     * the only ones segments can ask for, so unchanged parts of the document are never decoded.
+     */
+    private void indexEditedParagraphs(SourceText baseText, List<String> existingTranslationLines, EditList edits) {
+        if (!paragraphMemory.isEnabled() || existingTranslationLines.size() != baseText.size()) {
+            return;
+        }
+        List<String> baseLines = baseText.lines();
+        for (Edit edit : edits) {
+            paragraphMemory.index(baseLines, existingTranslationLines, edit.getBeginA(), edit.getEndA());
+        }
+    }
+
+    /**
+     * Returns the upstream blob id of {@code filePath}, or {@code null} when it cannot be resolved, which only
+     * bypasses the decision memory.
+     */
+    private String blobId(PlanningSession session, GitWorkflowResult workflowResult, String commitSha, String filePath) {
+        try {
+            return session.blobId(workflowResult.upstreamDirectory(), commitSha, filePath).orElse(null);
+        } catch (IOException ex) {
+            LOGGER.debug("Failed to resolve blob id of {} at {}: {}", filePath, commitSha, ex.getMessage());
+            return null;
+        }
+    }
+
     private TranslationTask planFromDiff(String filePath,
-                                         List<String> baseSourceLines,
                                          List<String> existingTranslationLines,
-                                         List<String> newSourceLines) {
-        EditList edits = computeEdits(baseSourceLines, newSourceLines);
+                                         List<String> newSourceLines,
+                                         EditList edits) {
         List<TranslationSegment> segments = segmentsFromEdits(edits);
         if (segments.isEmpty()) {
             return null;
         }
         List<String> existingLines = alignExistingLines(existingTranslationLines, newSourceLines, edits);
-        List<TranslationSegment> normalized = normalizeSegments(segments);
+        List<TranslationSegment> normalized = normalizeSegments(segments, newSourceLines);
         return new TranslationTask(filePath, newSourceLines, existingLines, normalized);
     }
 
-    private List<String> readLinesAtCommit(Path repositoryDir, String commitSha, String filePath) throws IOException {
-        if (commitSha == null || commitSha.isBlank()) {
-            return List.of();
-        }
-        Path gitDir = repositoryDir.resolve(".git");
-        if (!Files.exists(gitDir)) {
-            return List.of();
+    /**
+     * Returns the edits between both upstream versions. With blob ids from the diff analysis the edit list is
+     * computed once per distinct blob pair in the run, and not at all when the blob did not change.
+     */
+    private EditList edits(PlanningSession session, Optional<SourceBlobs> sourceBlobs,
+                           SourceText baseText, SourceText newText) {
+        if (sourceBlobs.isEmpty() || sourceBlobs.get().baseBlobId().isEmpty() || sourceBlobs.get().newBlobId().isEmpty()) {
+            return computeEdits(baseText, newText);
         }
-        FileRepositoryBuilder builder = new FileRepositoryBuilder()
-                .setGitDir(gitDir.toFile())
-                .setMustExist(true);
-        try (Repository repository = builder.build()) {
-            ObjectId commitId = repository.resolve(commitSha);
-            if (commitId == null) {
-                return List.of();
-            }
-            try (RevWalk walk = new RevWalk(repository)) {
-                RevCommit commit = walk.parseCommit(commitId);
-                try (TreeWalk treeWalk = TreeWalk.forPath(repository, filePath, commit.getTree())) {
-                    if (treeWalk == null) {
-                        return List.of();
-                    }
-                    ObjectLoader loader = repository.open(treeWalk.getObjectId(0));
-                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(loader.openStream(), StandardCharsets.UTF_8))) {
-                        return reader.lines().toList();
-                    }
-                }
-            }
+        if (sourceBlobs.get().unchanged()) {
+            return new EditList();
         }
+        return session.edits(sourceBlobs.get().baseBlobId().get(), sourceBlobs.get().newBlobId().get(),
+                () -> computeEdits(baseText, newText));
     }
 
-    private EditList computeEdits(List<String> baseLines, List<String> newLines) {
-        RawText baseText = new RawText(toByteArray(baseLines));
-        RawText newText = new RawText(toByteArray(newLines));
+    /**
+     * Diffs the blob bytes directly; lines are compared without their terminators.
+     */
+    private EditList computeEdits(SourceText baseText, SourceText newText) {
         DiffAlgorithm algorithm = DiffAlgorithm.getAlgorithm(DiffAlgorithm.SupportedAlgorithm.HISTOGRAM);
-        return algorithm.diff(RawTextComparator.DEFAULT, baseText, newText);
-    }
-
-    private byte[] toByteArray(List<String> lines) {
-        if (lines.isEmpty()) {
-            return new byte[0];
-        }
-        String joined = String.join("\n", lines);
-        return joined.getBytes(StandardCharsets.UTF_8);
+        return algorithm.diff(SourceText.LINE_CONTENT, baseText, newText);
     }
 
     private List<TranslationSegment> segmentsFromEdits(EditList edits) {
@@ -208,7 +435,7 @@ public class TranslationTaskPlanner {
         return segments;
     }
 
-    private List<TranslationSegment> normalizeSegments(List<TranslationSegment> segments) {
+    private List<TranslationSegment> normalizeSegments(List<TranslationSegment> segments, List<String> sourceLines) {
         if (segments.isEmpty()) {
             return segments;
         }
@@ -228,6 +455,9 @@ public class TranslationTaskPlanner {
             }
         }
 
+        if (segmentTokenBudget > 0) {
+            return new TokenBudgetSegmentSplitter(segmentTokenBudget).split(sourceLines, merged);
+        }
         List<TranslationSegment> result = new ArrayList<>();
         for (TranslationSegment segment : merged) {
             int start = segment.startLine();
@@ -320,4 +550,20 @@ public class TranslationTaskPlanner {
             return Collections.unmodifiableList(files);
         }
     }
+
+    /**
+     * Outcome of planning a single file; at most one of the components is set.
+     */
+    private record FilePlan(TranslationTask task, String conflictFile, String upstreamReadFailure) {
+
+        static final FilePlan NONE = new FilePlan(null, null, null);
+
+        static FilePlan conflict(String path) {
+            return new FilePlan(null, path, null);
+        }
+
+        static FilePlan upstreamReadFailure(String path) {
+            return new FilePlan(null, null, path);
+        }
+    }
 }
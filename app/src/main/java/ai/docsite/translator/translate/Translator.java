@@ -1,5 +1,6 @@
 package ai.docsite.translator.translate;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -8,4 +9,17 @@ import java.util.List;
 public interface Translator {
 
     List<String> translate(List<String> sourceLines);
+
+    /**
+     * Translates several independent fragments, possibly from different documents, at once. The result holds one
+     * entry per fragment in the same order; an empty entry means the fragment could not be translated as part of
+     * the batch and should be translated on its own.
+     */
+    default List<List<String>> translateBatch(List<List<String>> fragments) {
+        List<List<String>> results = new ArrayList<>(fragments.size());
+        for (List<String> fragment : fragments) {
+            results.add(translate(fragment));
+        }
+        return results;
+    }
 }
@@ -0,0 +1,116 @@
+package ai.docsite.translator.translate.memory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Cache of translation decisions persisted across runs.
+ *
+ * <p>Entries are keyed by a SHA-256 hash of the provider, model, prompt version and the git blob ids of the
+ * base and new version of a document. Blob ids identify content rather than paths or commits, so the same
+ * upstream transition seen again by a retried run, a rerun with {@code --since} or another origin repository
+ * syncing the same upstream is answered without calling the LLM.</p>
+ *
+ * <p>The memory is best-effort: I/O failures are logged and only disable persistence, never the decision.</p>
+ */
+public final class DecisionMemory implements AutoCloseable {
+
+    private static final String FILE_NAME = "decision-memory.log";
+    private static final String TRANSLATE = "YES";
+    private static final String SKIP = "NO";
+
+    private final PersistentLineStore store;
+    private final String namespace;
+
+    private DecisionMemory(PersistentLineStore store, String namespace) {
+        this.store = store;
+        this.namespace = namespace;
+    }
+
+    /**
+     * Opens the decision memory stored in {@code directory}. The file is read lazily on first use.
+     *
+     * @param maxEntries maximum number of cached decisions; {@code 0} disables the memory
+     */
+    public static DecisionMemory open(Path directory, int maxEntries,
+                                      String providerName, String modelName, String promptVersion) {
+        Objects.requireNonNull(directory, "directory");
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("maxEntries must be greater than or equal to zero");
+        }
+        if (maxEntries == 0) {
+            return disabled();
+        }
+        String namespace = String.join("\u0000",
+                Objects.requireNonNull(providerName, "providerName"),
+                Objects.requireNonNull(modelName, "modelName"),
+                Objects.requireNonNull(promptVersion, "promptVersion"));
+        return new DecisionMemory(new PersistentLineStore(directory.resolve(FILE_NAME), maxEntries), namespace);
+    }
+
+    public static DecisionMemory disabled() {
+        return new DecisionMemory(null, "");
+    }
+
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    /**
+     * Returns the stored decision for the transition from {@code baseBlobId} to {@code newBlobId}.
+     */
+    public Optional<Boolean> lookup(String baseBlobId, String newBlobId) {
+        if (!isEnabled() || isBlank(baseBlobId) || isBlank(newBlobId)) {
+            return Optional.empty();
+        }
+        List<String> stored = store.get(keyFor(baseBlobId, newBlobId));
+        if (stored == null || stored.size() != 1) {
+            return Optional.empty();
+        }
+        return switch (stored.get(0)) {
+            case TRANSLATE -> Optional.of(true);
+            case SKIP -> Optional.of(false);
+            default -> Optional.empty();
+        };
+    }
+
+    public void store(String baseBlobId, String newBlobId, boolean shouldTranslate) {
+        if (!isEnabled() || isBlank(baseBlobId) || isBlank(newBlobId)) {
+            return;
+        }
+        store.put(keyFor(baseBlobId, newBlobId), List.of(shouldTranslate ? TRANSLATE : SKIP));
+    }
+
+    /**
+     * Flushes and releases the underlying file handle.
+     */
+    @Override
+    public void close() {
+        if (isEnabled()) {
+            store.close();
+        }
+    }
+
+    int size() {
+        return isEnabled() ? store.size() : 0;
+    }
+
+    private String keyFor(String baseBlobId, String newBlobId) {
+        MessageDigest digest = TranslationMemory.sha256();
+        digest.update(namespace.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+        digest.update(baseBlobId.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+        digest.update(newBlobId.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
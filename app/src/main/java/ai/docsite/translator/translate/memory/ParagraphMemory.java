@@ -0,0 +1,213 @@
+package ai.docsite.translator.translate.memory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Paragraph-level index of English blocks and their Japanese counterparts, persisted across runs.
+ *
+ * <p>The index is fed from line-aligned pairs of source and translation (the existing translation of a file
+ * and every new segment translation). A paragraph is a run of non-blank lines. Lookups match paragraphs after
+ * Unicode, whitespace and punctuation normalization, so punctuation-only or spacing-only upstream churn can
+ * reuse the stored translation without calling the LLM.</p>
+ *
+ * <p>Only punctuation that ends a word or stands alone is ignored. Punctuation in front of a letter or digit
+ * ({@code foo.bar}, {@code --force}, {@code -5}, {@code 2.3}) and everything inside code spans and links is
+ * part of the key, because the stored translation repeats those identifiers.</p>
+ */
+public final class ParagraphMemory implements AutoCloseable {
+
+    private static final String FILE_NAME = "paragraph-memory.log";
+    /** Bumped whenever {@link #normalize} changes, so paragraphs indexed under an older key never match. */
+    private static final String KEY_VERSION = "2";
+    private static final Pattern PUNCTUATION = Pattern.compile("\\p{P}++(?![\\p{L}\\p{N}])");
+    private static final Pattern VERBATIM = Pattern.compile("`[^`]*`|\\]\\([^)]*\\)|<(?:https?|mailto):[^>]*>|https?://\\S+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern BLOCK_MARKER = Pattern.compile("^\\s*(?:[#>*+\\-]+|\\d+[.)])?");
+
+    private final PersistentLineStore store;
+
+    private ParagraphMemory(PersistentLineStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Opens the paragraph memory stored in {@code directory}. The file is read lazily on first use.
+     *
+     * @param maxEntries maximum number of indexed paragraphs; {@code 0} disables the memory
+     */
+    public static ParagraphMemory open(Path directory, int maxEntries) {
+        Objects.requireNonNull(directory, "directory");
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("maxEntries must be greater than or equal to zero");
+        }
+        if (maxEntries == 0) {
+            return disabled();
+        }
+        return new ParagraphMemory(new PersistentLineStore(directory.resolve(FILE_NAME), maxEntries));
+    }
+
+    public static ParagraphMemory disabled() {
+        return new ParagraphMemory(null);
+    }
+
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    /**
+     * Records every paragraph of {@code sourceLines} together with the line-aligned {@code translatedLines}.
+     * Pairs with different line counts are ignored, as are paragraphs that were left untranslated.
+     */
+    public void index(List<String> sourceLines, List<String> translatedLines) {
+        if (!isEnabled() || sourceLines == null || translatedLines == null
+                || sourceLines.isEmpty() || sourceLines.size() != translatedLines.size()) {
+            return;
+        }
+        for (int[] block : paragraphs(sourceLines)) {
+            List<String> source = sourceLines.subList(block[0], block[1]);
+            List<String> translated = translatedLines.subList(block[0], block[1]);
+            if (translated.equals(source) || translated.stream().allMatch(String::isBlank)) {
+                continue;
+            }
+            String key = keyFor(source);
+            if (key != null) {
+                store.put(key, translated);
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #index(List, List)}, limited to the paragraphs that overlap or touch lines {@code fromLine}
+     * to {@code toLine} (exclusive). No line outside those paragraphs and the blank lines around them is read.
+     */
+    public void index(List<String> sourceLines, List<String> translatedLines, int fromLine, int toLine) {
+        if (!isEnabled() || sourceLines == null || translatedLines == null
+                || sourceLines.size() != translatedLines.size()) {
+            return;
+        }
+        int start = Math.max(0, Math.min(fromLine, sourceLines.size()));
+        int end = Math.max(start, Math.min(toLine, sourceLines.size()));
+        while (start > 0 && !sourceLines.get(start - 1).isBlank()) {
+            start--;
+        }
+        while (end < sourceLines.size() && !sourceLines.get(end).isBlank()) {
+            end++;
+        }
+        if (start < end) {
+            index(sourceLines.subList(start, end), translatedLines.subList(start, end));
+        }
+    }
+
+    /**
+     * Returns a translation for {@code sourceLines} when every paragraph in it is known; blank lines and
+     * punctuation-only blocks are kept as they are.
+     */
+    public Optional<List<String>> lookup(List<String> sourceLines) {
+        if (!isEnabled() || sourceLines == null || sourceLines.isEmpty()) {
+            return Optional.empty();
+        }
+        List<int[]> blocks = paragraphs(sourceLines);
+        if (blocks.isEmpty()) {
+            return Optional.empty();
+        }
+        List<String> result = new ArrayList<>(sourceLines);
+        for (int[] block : blocks) {
+            String key = keyFor(sourceLines.subList(block[0], block[1]));
+            if (key == null) {
+                // punctuation-only blocks such as thematic breaks carry nothing to translate
+                continue;
+            }
+            List<String> translated = store.get(key);
+            if (translated == null || translated.size() != block[1] - block[0]) {
+                return Optional.empty();
+            }
+            for (int i = 0; i < translated.size(); i++) {
+                result.set(block[0] + i, translated.get(i));
+            }
+        }
+        return Optional.of(List.copyOf(result));
+    }
+
+    /**
+     * Flushes and releases the underlying file handle.
+     */
+    @Override
+    public void close() {
+        if (isEnabled()) {
+            store.close();
+        }
+    }
+
+    /**
+     * Normalizes a line for matching. Leading Markdown block markers (headings, quotes, list bullets and
+     * numbers) are kept so that, for example, a heading never matches a plain paragraph with the same words.
+     */
+    static String normalize(String line) {
+        String normalized = Normalizer.normalize(line, Normalizer.Form.NFKC);
+        Matcher marker = BLOCK_MARKER.matcher(normalized);
+        String prefix = "";
+        if (marker.find()) {
+            prefix = marker.group().strip();
+            normalized = normalized.substring(marker.end());
+        }
+        StringBuilder text = new StringBuilder();
+        Matcher verbatim = VERBATIM.matcher(normalized);
+        int end = 0;
+        while (verbatim.find()) {
+            text.append(stripPunctuation(normalized.substring(end, verbatim.start())))
+                    .append(' ').append(verbatim.group()).append(' ');
+            end = verbatim.end();
+        }
+        text.append(stripPunctuation(normalized.substring(end)));
+        String result = WHITESPACE.matcher(text).replaceAll(" ").trim();
+        return result.isEmpty() ? "" : prefix + " " + result;
+    }
+
+    private static String stripPunctuation(String text) {
+        return PUNCTUATION.matcher(text).replaceAll(" ");
+    }
+
+    private static String keyFor(List<String> lines) {
+        StringBuilder normalized = new StringBuilder(KEY_VERSION).append('\n');
+        boolean hasText = false;
+        for (String line : lines) {
+            String value = normalize(line);
+            hasText |= !value.isEmpty();
+            normalized.append(value).append('\n');
+        }
+        if (!hasText) {
+            return null;
+        }
+        MessageDigest digest = TranslationMemory.sha256();
+        digest.update(normalized.toString().getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static List<int[]> paragraphs(List<String> lines) {
+        List<int[]> blocks = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i < lines.size(); i++) {
+            boolean blank = lines.get(i).isBlank();
+            if (!blank && start < 0) {
+                start = i;
+            } else if (blank && start >= 0) {
+                blocks.add(new int[] {start, i});
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            blocks.add(new int[] {start, lines.size()});
+        }
+        return blocks;
+    }
+}
@@ -0,0 +1,165 @@
+package ai.docsite.translator.translate.memory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Size-bounded LRU map of line blocks backed by an append-only file.
+ *
+ * <p>Every update is appended as {@code key TAB base64(lines)}; later records win when the file is replayed.
+ * Once the file holds twice as many records as live entries it is rewritten from memory. I/O failures are
+ * logged and only disable persistence.</p>
+ */
+final class PersistentLineStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistentLineStore.class);
+    private static final char FIELD_SEPARATOR = '\t';
+    private static final int COMPACTION_FACTOR = 2;
+
+    private final Path file;
+    private final int maxEntries;
+    private final Map<String, List<String>> entries;
+    private boolean loaded;
+    private int fileRecords;
+    private BufferedWriter writer;
+
+    PersistentLineStore(Path file, int maxEntries) {
+        this.file = file;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+                return size() > PersistentLineStore.this.maxEntries;
+            }
+        };
+    }
+
+    synchronized List<String> get(String key) {
+        ensureLoaded();
+        return entries.get(key);
+    }
+
+    synchronized void put(String key, List<String> lines) {
+        ensureLoaded();
+        List<String> value = List.copyOf(lines);
+        if (value.equals(entries.get(key))) {
+            return;
+        }
+        entries.put(key, value);
+        append(key, value);
+        if (fileRecords > maxEntries * COMPACTION_FACTOR) {
+            compact();
+        }
+    }
+
+    synchronized void close() {
+        closeWriter();
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                fileRecords++;
+                int separator = line.indexOf(FIELD_SEPARATOR);
+                if (separator <= 0) {
+                    continue;
+                }
+                try {
+                    entries.put(line.substring(0, separator), decode(line.substring(separator + 1)));
+                } catch (IllegalArgumentException ex) {
+                    LOGGER.debug("Skipping corrupt record in {}", file);
+                }
+            }
+            LOGGER.info("Loaded {} entries from {}", entries.size(), file);
+        } catch (IOException ex) {
+            LOGGER.warn("Failed to read {}: {}", file, ex.getMessage());
+        }
+    }
+
+    private void append(String key, List<String> value) {
+        try {
+            if (writer == null) {
+                Files.createDirectories(file.getParent());
+                writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            writer.write(key);
+            writer.write(FIELD_SEPARATOR);
+            writer.write(encode(value));
+            writer.newLine();
+            writer.flush();
+            fileRecords++;
+        } catch (IOException ex) {
+            LOGGER.warn("Failed to persist entry to {}: {}", file, ex.getMessage());
+            closeWriter();
+        }
+    }
+
+    private void compact() {
+        closeWriter();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, List<String>> entry : entries.entrySet()) {
+                out.write(entry.getKey());
+                out.write(FIELD_SEPARATOR);
+                out.write(encode(entry.getValue()));
+                out.newLine();
+            }
+        } catch (IOException ex) {
+            LOGGER.warn("Failed to compact {}: {}", file, ex.getMessage());
+            return;
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            fileRecords = entries.size();
+            LOGGER.debug("Compacted {} to {} entries", file, fileRecords);
+        } catch (IOException ex) {
+            LOGGER.warn("Failed to replace {}: {}", file, ex.getMessage());
+        }
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException ex) {
+            LOGGER.debug("Failed to close writer for {}: {}", file, ex.getMessage());
+        }
+        writer = null;
+    }
+
+    private static String encode(List<String> lines) {
+        return Base64.getEncoder().encodeToString(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> decode(String encoded) {
+        String joined = new String(Base64.getDecoder().decode(encoded), StandardCharsets.UTF_8);
+        return List.of(joined.split("\n", -1));
+    }
+}
@@ -0,0 +1,109 @@
+package ai.docsite.translator.translate.memory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Content-addressed cache of segment translations persisted across runs.
+ *
+ * <p>Entries are keyed by a SHA-256 hash of the provider, model, prompt version and the source lines, so a
+ * segment that reappears anywhere (reverts, cherry-picks, duplicated versioned docs) is served without calling
+ * the LLM. The cache lives in an append-only file; the least recently used entries are evicted once
+ * {@code maxEntries} is exceeded and the file is compacted when it grows well beyond the live entries.</p>
+ *
+ * <p>The memory is best-effort: I/O failures are logged and only disable persistence, never the translation.</p>
+ */
+public final class TranslationMemory implements AutoCloseable {
+
+    private static final String FILE_NAME = "translation-memory.log";
+
+    private final PersistentLineStore store;
+    private final String namespace;
+
+    private TranslationMemory(PersistentLineStore store, String namespace) {
+        this.store = store;
+        this.namespace = namespace;
+    }
+
+    /**
+     * Opens the translation memory stored in {@code directory}. The file is read lazily on first use.
+     *
+     * @param maxEntries maximum number of cached segments; {@code 0} disables the memory
+     */
+    public static TranslationMemory open(Path directory, int maxEntries,
+                                         String providerName, String modelName, String promptVersion) {
+        Objects.requireNonNull(directory, "directory");
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException("maxEntries must be greater than or equal to zero");
+        }
+        if (maxEntries == 0) {
+            return disabled();
+        }
+        String namespace = String.join("\u0000",
+                Objects.requireNonNull(providerName, "providerName"),
+                Objects.requireNonNull(modelName, "modelName"),
+                Objects.requireNonNull(promptVersion, "promptVersion"));
+        return new TranslationMemory(new PersistentLineStore(directory.resolve(FILE_NAME), maxEntries), namespace);
+    }
+
+    public static TranslationMemory disabled() {
+        return new TranslationMemory(null, "");
+    }
+
+    public boolean isEnabled() {
+        return store != null;
+    }
+
+    public Optional<List<String>> lookup(List<String> sourceLines) {
+        if (!isEnabled() || sourceLines == null || sourceLines.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(store.get(keyFor(sourceLines)));
+    }
+
+    public void store(List<String> sourceLines, List<String> translatedLines) {
+        if (!isEnabled() || sourceLines == null || sourceLines.isEmpty()
+                || translatedLines == null || translatedLines.size() != sourceLines.size()) {
+            return;
+        }
+        store.put(keyFor(sourceLines), translatedLines);
+    }
+
+    /**
+     * Flushes and releases the underlying file handle.
+     */
+    @Override
+    public void close() {
+        if (isEnabled()) {
+            store.close();
+        }
+    }
+
+    int size() {
+        return isEnabled() ? store.size() : 0;
+    }
+
+    private String keyFor(List<String> sourceLines) {
+        MessageDigest digest = sha256();
+        digest.update(namespace.getBytes(StandardCharsets.UTF_8));
+        for (String line : sourceLines) {
+            digest.update((byte) '\n');
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
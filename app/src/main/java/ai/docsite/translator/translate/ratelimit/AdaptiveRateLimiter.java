@@ -0,0 +1,193 @@
+package ai.docsite.translator.translate.ratelimit;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Proactive request (RPM) and token (TPM) limiter shared by every LLM call of a run.
+ *
+ * <p>Both limits are token buckets that refill continuously over a one minute window. Callers reserve
+ * capacity up front and sleep until their reservation becomes available, so concurrent callers are paced
+ * instead of all hitting the provider quota at once. A limit of {@code 0} starts out unbounded.</p>
+ *
+ * <p>The limiter adapts to the effective quota: when the provider reports a rate limit, the request rate is
+ * lowered to a fraction of what was observed during the last minute and, if the provider returned a
+ * {@code retryDelay} hint, all callers are held back until that delay has elapsed. Every full window of
+ * successful requests afterwards raises the learned rate by one again, up to the configured ceiling.</p>
+ */
+public class AdaptiveRateLimiter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveRateLimiter.class);
+    private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final double BACKOFF_FACTOR = 0.8;
+    private static final int BURST_DIVISOR = 10;
+
+    private final int configuredRequestsPerMinute;
+    private final int tokensPerMinute;
+    private final LongSupplier nanoTime;
+    private final Sleeper sleeper;
+
+    private int requestsPerMinute;
+    private double requestPermits;
+    private double tokenPermits;
+    private long lastRefillNanos;
+    private long blockedUntilNanos;
+    private int successesSinceRateLimit;
+    private final Deque<Long> recentStarts = new ArrayDeque<>();
+
+    public AdaptiveRateLimiter(int requestsPerMinute, int tokensPerMinute) {
+        this(requestsPerMinute, tokensPerMinute, System::nanoTime, Sleeper.THREAD_SLEEP);
+    }
+
+    AdaptiveRateLimiter(int requestsPerMinute, int tokensPerMinute, LongSupplier nanoTime, Sleeper sleeper) {
+        if (requestsPerMinute < 0) {
+            throw new IllegalArgumentException("requestsPerMinute must be at least 0");
+        }
+        if (tokensPerMinute < 0) {
+            throw new IllegalArgumentException("tokensPerMinute must be at least 0");
+        }
+        this.configuredRequestsPerMinute = requestsPerMinute;
+        this.requestsPerMinute = requestsPerMinute;
+        this.tokensPerMinute = tokensPerMinute;
+        this.nanoTime = nanoTime;
+        this.sleeper = sleeper;
+        this.lastRefillNanos = nanoTime.getAsLong();
+        this.blockedUntilNanos = lastRefillNanos;
+        this.requestPermits = requestCapacity();
+        this.tokenPermits = tokensPerMinute;
+    }
+
+    /**
+     * Blocks until a request with the given estimated token count may be sent.
+     */
+    public void acquire(int estimatedTokens) {
+        long waitNanos;
+        synchronized (this) {
+            long now = nanoTime.getAsLong();
+            refill(now);
+            pruneStarts(now);
+            long start = Math.max(now, blockedUntilNanos);
+            if (requestsPerMinute > 0) {
+                requestPermits -= 1;
+                if (requestPermits < 0) {
+                    start = Math.max(start, now + nanosFor(-requestPermits, requestsPerMinute));
+                }
+            }
+            if (tokensPerMinute > 0) {
+                tokenPermits -= Math.min(Math.max(estimatedTokens, 0), tokensPerMinute);
+                if (tokenPermits < 0) {
+                    start = Math.max(start, now + nanosFor(-tokenPermits, tokensPerMinute));
+                }
+            }
+            recentStarts.addLast(start);
+            waitNanos = start - now;
+        }
+        if (waitNanos > 0) {
+            LOGGER.debug("Pacing LLM request for {} ms to stay within the rate limit", TimeUnit.NANOSECONDS.toMillis(waitNanos));
+            try {
+                sleeper.sleep(waitNanos);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the LLM rate limiter", ex);
+            }
+        }
+    }
+
+    /**
+     * Records a successful call, charging the output tokens that were not known when the request was reserved.
+     */
+    public synchronized void onSuccess(int responseTokens) {
+        if (tokensPerMinute > 0 && responseTokens > 0) {
+            refill(nanoTime.getAsLong());
+            tokenPermits -= Math.min(responseTokens, tokensPerMinute);
+        }
+        if (requestsPerMinute > 0 && requestsPerMinute != configuredRequestsPerMinute) {
+            successesSinceRateLimit++;
+            if (successesSinceRateLimit >= requestsPerMinute) {
+                successesSinceRateLimit = 0;
+                requestsPerMinute = configuredRequestsPerMinute > 0
+                        ? Math.min(configuredRequestsPerMinute, requestsPerMinute + 1)
+                        : requestsPerMinute + 1;
+            }
+        }
+    }
+
+    /**
+     * Records a rate-limit rejection and lowers the request rate accordingly.
+     *
+     * @param retryAfter provider supplied delay before the quota resets, if any
+     */
+    public synchronized void onRateLimited(Optional<Duration> retryAfter) {
+        long now = nanoTime.getAsLong();
+        refill(now);
+        pruneStarts(now);
+        int observed = Math.max(1, recentStarts.size());
+        int learned = Math.max(1, (int) Math.floor(observed * BACKOFF_FACTOR));
+        if (requestsPerMinute == 0 || learned < requestsPerMinute) {
+            LOGGER.warn("Provider rate limit reached after {} requests in the last minute; pacing LLM calls at {} requests/minute",
+                    observed, learned);
+            requestsPerMinute = learned;
+            requestPermits = Math.min(requestPermits, 0);
+        }
+        successesSinceRateLimit = 0;
+        retryAfter.filter(delay -> !delay.isNegative() && !delay.isZero()).ifPresent(delay -> {
+            long until = now + delay.toNanos();
+            if (until > blockedUntilNanos) {
+                LOGGER.info("Holding all LLM calls for {} s as requested by the provider", delay.toSeconds());
+                blockedUntilNanos = until;
+            }
+        });
+    }
+
+    public synchronized int requestsPerMinute() {
+        return requestsPerMinute;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        if (elapsed <= 0) {
+            return;
+        }
+        lastRefillNanos = now;
+        if (requestsPerMinute > 0) {
+            requestPermits = Math.min(requestCapacity(), requestPermits + permitsFor(elapsed, requestsPerMinute));
+        }
+        if (tokensPerMinute > 0) {
+            tokenPermits = Math.min(tokensPerMinute, tokenPermits + permitsFor(elapsed, tokensPerMinute));
+        }
+    }
+
+    private void pruneStarts(long now) {
+        while (!recentStarts.isEmpty() && now - recentStarts.peekFirst() > WINDOW_NANOS) {
+            recentStarts.removeFirst();
+        }
+    }
+
+    private double requestCapacity() {
+        return Math.max(1, requestsPerMinute / BURST_DIVISOR);
+    }
+
+    private static double permitsFor(long nanos, int perMinute) {
+        return (double) nanos * perMinute / WINDOW_NANOS;
+    }
+
+    private static long nanosFor(double permits, int perMinute) {
+        return (long) Math.ceil(permits * WINDOW_NANOS / perMinute);
+    }
+
+    /**
+     * Sleep abstraction so tests can drive the limiter with a fake clock.
+     */
+    @FunctionalInterface
+    interface Sleeper {
+        Sleeper THREAD_SLEEP = nanos -> TimeUnit.NANOSECONDS.sleep(nanos);
+
+        void sleep(long nanos) throws InterruptedException;
+    }
+}
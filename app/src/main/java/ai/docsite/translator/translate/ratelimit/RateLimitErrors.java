@@ -0,0 +1,69 @@
+package ai.docsite.translator.translate.ratelimit;
+
+import dev.langchain4j.exception.RateLimitException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Helpers for recognising provider rate-limit failures (HTTP 429 / RESOURCE_EXHAUSTED) and their retry hints.
+ */
+public final class RateLimitErrors {
+
+    private static final Pattern RETRY_DELAY_PATTERN = Pattern.compile("(?:retry in |retryDelay\"?:\\s*\")([0-9]+(?:\\.[0-9]+)?)s", Pattern.CASE_INSENSITIVE);
+
+    private RateLimitErrors() {
+    }
+
+    public static boolean isRateLimitError(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause != null) {
+            if (cause instanceof RateLimitException) {
+                return true;
+            }
+            String message = cause.getMessage();
+            if (message != null && (message.contains("RESOURCE_EXHAUSTED") || message.contains("429"))) {
+                return true;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * Extracts the provider supplied retry delay from the message of the given throwable only.
+     */
+    public static Optional<Duration> extractRetryAfter(Throwable throwable) {
+        String message = throwable.getMessage();
+        if (message == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = RETRY_DELAY_PATTERN.matcher(message);
+        if (matcher.find()) {
+            try {
+                double seconds = Double.parseDouble(matcher.group(1));
+                long millis = Math.max(0, (long) (seconds * 1000));
+                return Optional.of(Duration.ofMillis(millis));
+            } catch (NumberFormatException ignored) {
+                // fall through
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Extracts the first provider supplied retry delay found anywhere in the cause chain.
+     */
+    public static Optional<Duration> findRetryAfter(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause != null) {
+            Optional<Duration> delay = extractRetryAfter(cause);
+            if (delay.isPresent()) {
+                return delay;
+            }
+            cause = cause.getCause();
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,100 @@
+package ai.docsite.translator.translate.ratelimit;
+
+import ai.docsite.translator.translate.TokenEstimator;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * {@link ChatModel} decorator that routes every call through a shared {@link AdaptiveRateLimiter}.
+ */
+public class RateLimitedChatModel implements ChatModel {
+
+    private final ChatModel delegate;
+    private final AdaptiveRateLimiter rateLimiter;
+
+    public RateLimitedChatModel(ChatModel delegate, AdaptiveRateLimiter rateLimiter) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.rateLimiter = Objects.requireNonNull(rateLimiter, "rateLimiter");
+    }
+
+    @Override
+    public String chat(String userMessage) {
+        String response = call(TokenEstimator.estimate(userMessage), () -> delegate.chat(userMessage));
+        rateLimiter.onSuccess(TokenEstimator.estimate(response));
+        return response;
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest chatRequest) {
+        ChatResponse response = call(estimateTokens(chatRequest), () -> delegate.chat(chatRequest));
+        AiMessage aiMessage = response == null ? null : response.aiMessage();
+        rateLimiter.onSuccess(aiMessage == null ? 0 : TokenEstimator.estimate(aiMessage.text()));
+        return response;
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return delegate.defaultRequestParameters();
+    }
+
+    @Override
+    public List<ChatModelListener> listeners() {
+        return delegate.listeners();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return delegate.provider();
+    }
+
+    private <T> T call(int estimatedTokens, Supplier<T> invocation) {
+        rateLimiter.acquire(estimatedTokens);
+        try {
+            return invocation.get();
+        } catch (RuntimeException ex) {
+            if (RateLimitErrors.isRateLimitError(ex)) {
+                rateLimiter.onRateLimited(RateLimitErrors.findRetryAfter(ex));
+            }
+            throw ex;
+        }
+    }
+
+    static int estimateTokens(ChatRequest chatRequest) {
+        int estimatedTokens = 0;
+        for (ChatMessage message : chatRequest.messages()) {
+            estimatedTokens += TokenEstimator.estimate(textOf(message));
+        }
+        return estimatedTokens;
+    }
+
+    private static String textOf(ChatMessage message) {
+        if (message instanceof UserMessage userMessage && userMessage.hasSingleText()) {
+            return userMessage.singleText();
+        }
+        if (message instanceof SystemMessage systemMessage) {
+            return systemMessage.text();
+        }
+        if (message instanceof AiMessage aiMessage && aiMessage.text() != null) {
+            return aiMessage.text();
+        }
+        return String.valueOf(message);
+    }
+}
@@ -0,0 +1,103 @@
+package ai.docsite.translator.translate.ratelimit;
+
+import ai.docsite.translator.translate.TokenEstimator;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * {@link StreamingChatModel} decorator that shares the {@link AdaptiveRateLimiter} of the blocking models.
+ * Usage is reported once the stream completes.
+ */
+public class RateLimitedStreamingChatModel implements StreamingChatModel {
+
+    private final StreamingChatModel delegate;
+    private final AdaptiveRateLimiter rateLimiter;
+
+    public RateLimitedStreamingChatModel(StreamingChatModel delegate, AdaptiveRateLimiter rateLimiter) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.rateLimiter = Objects.requireNonNull(rateLimiter, "rateLimiter");
+    }
+
+    @Override
+    public void chat(String userMessage, StreamingChatResponseHandler handler) {
+        call(TokenEstimator.estimate(userMessage), () -> delegate.chat(userMessage, new LimitedHandler(handler)));
+    }
+
+    @Override
+    public void chat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+        call(RateLimitedChatModel.estimateTokens(chatRequest), () -> delegate.chat(chatRequest, new LimitedHandler(handler)));
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return delegate.defaultRequestParameters();
+    }
+
+    @Override
+    public List<ChatModelListener> listeners() {
+        return delegate.listeners();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return delegate.provider();
+    }
+
+    private void call(int estimatedTokens, Runnable invocation) {
+        rateLimiter.acquire(estimatedTokens);
+        try {
+            invocation.run();
+        } catch (RuntimeException ex) {
+            reportError(ex);
+            throw ex;
+        }
+    }
+
+    private void reportError(Throwable error) {
+        if (RateLimitErrors.isRateLimitError(error)) {
+            rateLimiter.onRateLimited(RateLimitErrors.findRetryAfter(error));
+        }
+    }
+
+    private final class LimitedHandler implements StreamingChatResponseHandler {
+
+        private final StreamingChatResponseHandler handler;
+
+        private LimitedHandler(StreamingChatResponseHandler handler) {
+            this.handler = Objects.requireNonNull(handler, "handler");
+        }
+
+        @Override
+        public void onPartialResponse(String partialResponse) {
+            handler.onPartialResponse(partialResponse);
+        }
+
+        @Override
+        public void onCompleteResponse(ChatResponse response) {
+            AiMessage aiMessage = response == null ? null : response.aiMessage();
+            rateLimiter.onSuccess(aiMessage == null ? 0 : TokenEstimator.estimate(aiMessage.text()));
+            handler.onCompleteResponse(response);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            reportError(error);
+            handler.onError(error);
+        }
+    }
+}
@@ -107,6 +107,25 @@ class AgentOrchestratorTest {
         assertThat(conflictCleanupService.invocations).isZero();
     }
 
+    @Test
+    void fastPlannerDoesNotBuildAnAgent() {
+        AgentFactory agentFactory = new AgentFactory(new SimpleRoutingChatModel(), translationService, pullRequestService,
+                new DefaultLineStructureAnalyzer(), new DefaultLineStructureAdjuster()) {
+            @Override
+            public TranslationAgent createAgent(Config config, GitWorkflowResult workflowResult) {
+                throw new AssertionError("agent must not be built by the fast planner");
+            }
+        };
+        AgentOrchestrator fastOrchestrator = new AgentOrchestrator(agentFactory, translationService, pullRequestService,
+                taskPlanner, documentWriter, commitService, conflictCleanupService);
+
+        AgentRunResult result = fastOrchestrator.run(config(Mode.DEV, true), workflowResultWithChanges());
+
+        assertThat(result.planSummary()).isEqualTo("REVIEW_ONLY_CREATE_PR");
+        assertThat(result.pullRequestDraftCreated()).isTrue();
+        assertThat(translationService.invocations).isZero();
+    }
+
     @Test
     void failsRunWhenPushFails() {
         Config config = config(Mode.BATCH, false);
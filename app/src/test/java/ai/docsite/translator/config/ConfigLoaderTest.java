@@ -5,8 +5,12 @@ import static org.assertj.core.api.Assertions.catchThrowable;
 
 import ai.docsite.translator.cli.CliArguments;
 import ai.docsite.translator.config.LogFormat;
+import ai.docsite.translator.diff.MergeDiffMode;
+import ai.docsite.translator.translate.DecisionPromptMode;
 import ai.docsite.translator.translate.TranslationMode;
 import java.net.URI;
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -52,6 +56,29 @@ class ConfigLoaderTest {
         assertThat(config.llmInitialBackoffSeconds()).isEqualTo(2);
         assertThat(config.llmMaxBackoffSeconds()).isEqualTo(60);
         assertThat(config.llmRetryJitterFactor()).isEqualTo(0.3);
+        assertThat(config.translationConcurrency()).isEqualTo(1);
+        assertThat(config.segmentConcurrency()).isEqualTo(1);
+        assertThat(config.llmRequestsPerMinute()).isZero();
+        assertThat(config.llmTokensPerMinute()).isZero();
+        assertThat(config.cacheDirectory()).isEqualTo(Config.defaultCacheDirectory());
+        assertThat(config.translationMemoryMaxEntries()).isEqualTo(10_000);
+        assertThat(config.paragraphMemoryMaxEntries()).isEqualTo(50_000);
+        assertThat(config.translationBatchTokenBudget()).isZero();
+        assertThat(config.llmStreaming()).isFalse();
+        assertThat(config.translationSegmentTokenBudget()).isZero();
+        assertThat(config.planningConcurrency()).isEqualTo(1);
+        assertThat(config.translationDecisionPrompt()).isEqualTo(DecisionPromptMode.FULL);
+        assertThat(config.translationDecisionMaxTokens()).isZero();
+        assertThat(config.decisionMemoryMaxEntries()).isEqualTo(10_000);
+        assertThat(config.agentPlanner()).isEqualTo(PlannerMode.FAST);
+        assertThat(config.gitReuseWorkspace()).isFalse();
+        assertThat(config.gitCloneDepth()).isZero();
+        assertThat(config.gitShallowSince()).isEmpty();
+        assertThat(config.gitSharedObjects()).isFalse();
+        assertThat(config.mergeDiffMode()).isEqualTo(MergeDiffMode.WORKING_TREE);
+        assertThat(config.diffRenameScore()).isZero();
+        assertThat(config.catchUpMaxCommits()).isZero();
+        assertThat(config.catchUpMaxFiles()).isZero();
     }
 
     @Test
@@ -68,6 +95,28 @@ class ConfigLoaderTest {
         envValues.put(ConfigLoader.ENV_TRANSLATION_INCLUDE_PATHS, "docs,docs/releases");
         envValues.put(ConfigLoader.ENV_DOCUMENT_EXTENSIONS, ".md,.mdx");
         envValues.put(ConfigLoader.ENV_LOG_FORMAT, "json");
+        envValues.put(ConfigLoader.ENV_TRANSLATION_CONCURRENCY, "4");
+        envValues.put(ConfigLoader.ENV_TRANSLATION_SEGMENT_CONCURRENCY, "3");
+        envValues.put(ConfigLoader.ENV_LLM_REQUESTS_PER_MINUTE, "15");
+        envValues.put(ConfigLoader.ENV_LLM_TOKENS_PER_MINUTE, "250000");
+        envValues.put(ConfigLoader.ENV_CACHE_DIR, "/tmp/translator-cache");
+        envValues.put(ConfigLoader.ENV_TRANSLATION_MEMORY_MAX_ENTRIES, "0");
+        envValues.put(ConfigLoader.ENV_PARAGRAPH_MEMORY_MAX_ENTRIES, "500");
+        envValues.put(ConfigLoader.ENV_TRANSLATION_BATCH_TOKEN_BUDGET, "2000");
+        envValues.put(ConfigLoader.ENV_LLM_STREAMING, "true");
+        envValues.put(ConfigLoader.ENV_TRANSLATION_SEGMENT_TOKEN_BUDGET, "6000");
+        envValues.put(ConfigLoader.ENV_PLANNING_CONCURRENCY, "8");
+        envValues.put(ConfigLoader.ENV_TRANSLATION_DECISION_PROMPT, "diff");
+        envValues.put(ConfigLoader.ENV_TRANSLATION_DECISION_MAX_TOKENS, "4000");
+        envValues.put(ConfigLoader.ENV_DECISION_MEMORY_MAX_ENTRIES, "300");
+        envValues.put(ConfigLoader.ENV_AGENT_PLANNER, "agent");
+        envValues.put(ConfigLoader.ENV_GIT_REUSE_WORKSPACE, "true");
+        envValues.put(ConfigLoader.ENV_GIT_CLONE_DEPTH, "50");
+        envValues.put(ConfigLoader.ENV_GIT_SHALLOW_SINCE, "2024-01-31");
+        envValues.put(ConfigLoader.ENV_MERGE_DIFF_MODE, "merge-result");
+        envValues.put(ConfigLoader.ENV_DIFF_RENAME_SCORE, "60");
+        envValues.put(ConfigLoader.ENV_CATCH_UP_MAX_COMMITS, "20");
+        envValues.put(ConfigLoader.ENV_CATCH_UP_MAX_FILES, "100");
 
         RecordingEnvironmentReader environmentReader = new RecordingEnvironmentReader(envValues);
         CliArguments cliArguments = CommandLine.populateCommand(new CliArguments());
@@ -91,6 +140,28 @@ class ConfigLoaderTest {
         assertThat(config.llmInitialBackoffSeconds()).isEqualTo(2);
         assertThat(config.llmMaxBackoffSeconds()).isEqualTo(60);
         assertThat(config.llmRetryJitterFactor()).isEqualTo(0.3);
+        assertThat(config.translationConcurrency()).isEqualTo(4);
+        assertThat(config.segmentConcurrency()).isEqualTo(3);
+        assertThat(config.llmRequestsPerMinute()).isEqualTo(15);
+        assertThat(config.llmTokensPerMinute()).isEqualTo(250000);
+        assertThat(config.cacheDirectory()).isEqualTo(Path.of("/tmp/translator-cache"));
+        assertThat(config.translationMemoryMaxEntries()).isZero();
+        assertThat(config.paragraphMemoryMaxEntries()).isEqualTo(500);
+        assertThat(config.translationBatchTokenBudget()).isEqualTo(2000);
+        assertThat(config.llmStreaming()).isTrue();
+        assertThat(config.translationSegmentTokenBudget()).isEqualTo(6000);
+        assertThat(config.planningConcurrency()).isEqualTo(8);
+        assertThat(config.translationDecisionPrompt()).isEqualTo(DecisionPromptMode.DIFF);
+        assertThat(config.translationDecisionMaxTokens()).isEqualTo(4000);
+        assertThat(config.decisionMemoryMaxEntries()).isEqualTo(300);
+        assertThat(config.agentPlanner()).isEqualTo(PlannerMode.AGENT);
+        assertThat(config.gitReuseWorkspace()).isTrue();
+        assertThat(config.gitCloneDepth()).isEqualTo(50);
+        assertThat(config.gitShallowSince()).contains(Instant.parse("2024-01-31T00:00:00Z"));
+        assertThat(config.mergeDiffMode()).isEqualTo(MergeDiffMode.MERGE_RESULT);
+        assertThat(config.diffRenameScore()).isEqualTo(60);
+        assertThat(config.catchUpMaxCommits()).isEqualTo(20);
+        assertThat(config.catchUpMaxFiles()).isEqualTo(100);
     }
 
     @Test
@@ -138,6 +209,23 @@ class ConfigLoaderTest {
                 .hasMessageContaining("dev mode");
     }
 
+    @Test
+    void sharedObjectsWithShallowCloneCausesValidationError() {
+        RecordingEnvironmentReader environmentReader = new RecordingEnvironmentReader(Map.of(
+                ConfigLoader.ENV_UPSTREAM_URL, "https://example.com/up.git",
+                ConfigLoader.ENV_ORIGIN_URL, "https://example.com/origin.git",
+                ConfigLoader.ENV_GITHUB_TOKEN, "github",
+                ConfigLoader.ENV_GIT_SHARED_OBJECTS, "true",
+                ConfigLoader.ENV_GIT_CLONE_DEPTH, "10"));
+        CliArguments cliArguments = CommandLine.populateCommand(new CliArguments());
+
+        Throwable thrown = catchThrowable(() -> new ConfigLoader(environmentReader).load(cliArguments));
+
+        assertThat(thrown)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("shallow");
+    }
+
     private static final class RecordingEnvironmentReader implements EnvironmentReader {
 
         private final Map<String, String> values;
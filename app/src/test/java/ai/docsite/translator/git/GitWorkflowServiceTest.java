@@ -11,7 +11,11 @@ import ai.docsite.translator.config.TranslatorConfig;
 import ai.docsite.translator.diff.ChangeCategory;
 import ai.docsite.translator.diff.DiffAnalyzer;
 import ai.docsite.translator.diff.FileChange;
+import ai.docsite.translator.diff.MergeDiffMode;
+import ai.docsite.translator.diff.SourceBlobs;
 import ai.docsite.translator.translate.TranslationMode;
+import ai.docsite.translator.translate.TranslationTask;
+import ai.docsite.translator.translate.TranslationTaskPlanner;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Files;
@@ -52,6 +56,25 @@ class GitWorkflowServiceTest {
                 .contains("build.gradle");
     }
 
+    @Test
+    void recordsUpstreamBlobIdsOfChangedDocuments() throws Exception {
+        prepareRepositories();
+        GitWorkflowService service = new GitWorkflowService(tempDir.resolve("workspace"), new DiffAnalyzer());
+
+        GitWorkflowResult result = service.prepareSyncBranch(config(Optional.empty()));
+
+        try (Git upstream = Git.open(tempDir.resolve("upstream-remote").toFile())) {
+            String readmeAtBase = upstream.getRepository().resolve(result.baseUpstreamCommitSha() + ":README.md").name();
+            String readmeAtTarget = upstream.getRepository().resolve(result.targetCommitSha() + ":README.md").name();
+            String guideAtTarget = upstream.getRepository().resolve(result.targetCommitSha() + ":docs/guide.md").name();
+            assertThat(result.diffMetadata().sourceBlobs("README.md"))
+                    .contains(new SourceBlobs(Optional.of(readmeAtBase), Optional.of(readmeAtTarget)));
+            assertThat(result.diffMetadata().sourceBlobs("docs/guide.md"))
+                    .contains(new SourceBlobs(Optional.empty(), Optional.of(guideAtTarget)));
+        }
+        assertThat(result.diffMetadata().sourceBlobs("build.gradle")).isEmpty();
+    }
+
     @Test
     void respectsTranslationTargetShaOverride() throws Exception {
         RepositorySetup setup = prepareRepositories();
@@ -65,6 +88,26 @@ class GitWorkflowServiceTest {
                 .containsExactly("docs/guide.md");
     }
 
+    @Test
+    void catchesUpOnPendingCommitsWithinTheBudget() throws Exception {
+        RepositorySetup setup = prepareRepositories();
+
+        GitWorkflowResult byCommits = new GitWorkflowService(tempDir.resolve("workspace-commits"), new DiffAnalyzer())
+                .prepareSyncBranch(withCatchUpBudget(config(Optional.empty()), 1, 0));
+        GitWorkflowResult byFiles = new GitWorkflowService(tempDir.resolve("workspace-files"), new DiffAnalyzer())
+                .prepareSyncBranch(withCatchUpBudget(config(Optional.empty()), 0, 1));
+        GitWorkflowResult wholeRange = new GitWorkflowService(tempDir.resolve("workspace-range"), new DiffAnalyzer())
+                .prepareSyncBranch(withCatchUpBudget(config(Optional.empty()), 2, 2));
+
+        assertThat(byCommits.translationBranch()).isEqualTo("sync-" + setup.firstNewShortSha);
+        assertThat(byCommits.diffMetadata().changes()).extracting(FileChange::path)
+                .containsExactly("docs/guide.md");
+        assertThat(byFiles.translationBranch()).isEqualTo("sync-" + setup.firstNewShortSha);
+        assertThat(wholeRange.translationBranch()).isEqualTo("sync-" + setup.latestShortSha);
+        assertThat(wholeRange.diffMetadata().changes()).extracting(FileChange::path)
+                .containsExactlyInAnyOrder("docs/guide.md", "README.md", "build.gradle");
+    }
+
     @Test
     void fallsBackToWorkingTreeDiffWhenMergeConflicts() throws Exception {
         ConflictSetup setup = prepareRepositoriesWithConflict();
@@ -79,6 +122,247 @@ class GitWorkflowServiceTest {
                 .contains("README.md");
     }
 
+    @Test
+    void derivesConflictedMergeChangesFromTheMergeResult() throws Exception {
+        ConflictSetup setup = prepareRepositoriesWithConflict();
+        try (Git origin = Git.open(setup.originRemote().toFile())) {
+            configureUser(origin);
+            write(setup.originRemote().resolve("docs/local.md"), "Origin only\n");
+            origin.add().addFilepattern("docs").call();
+            origin.commit().setMessage("origin only page").call();
+        }
+        try (Git upstream = Git.open(setup.upstreamRemote().toFile())) {
+            configureUser(upstream);
+            write(setup.upstreamRemote().resolve("docs/guide.md"), "Guide\n");
+            write(setup.upstreamRemote().resolve("build.gradle"), "plugins {}\n");
+            upstream.add().addFilepattern("docs").addFilepattern("build.gradle").call();
+            upstream.commit().setMessage("add guide").call();
+        }
+        Config config = config(Optional.empty(), setup.upstreamRemote().toUri(), setup.originRemote().toUri());
+
+        GitWorkflowResult scanned = new GitWorkflowService(tempDir.resolve("workspace-scan"), new DiffAnalyzer())
+                .prepareSyncBranch(withDiffOptions(config, MergeDiffMode.WORKING_TREE, 0));
+        GitWorkflowResult derived = new GitWorkflowService(tempDir.resolve("workspace-merge"), new DiffAnalyzer())
+                .prepareSyncBranch(withDiffOptions(config, MergeDiffMode.MERGE_RESULT, 0));
+
+        assertThat(derived.mergeStatus()).isEqualTo(MergeStatus.CONFLICTING);
+        assertThat(derived.diffMetadata().changes())
+                .containsExactlyInAnyOrderElementsOf(scanned.diffMetadata().changes())
+                .containsExactlyInAnyOrder(
+                        new FileChange("README.md", ChangeCategory.DOCUMENT_UPDATED),
+                        new FileChange("docs/guide.md", ChangeCategory.DOCUMENT_NEW),
+                        new FileChange("build.gradle", ChangeCategory.NON_DOCUMENT));
+    }
+
+    @Test
+    void reportsMovedDocumentsAsRenamesWhenDetectionIsEnabled() throws Exception {
+        Path upstreamRemote = tempDir.resolve("upstream-rename");
+        Path originRemote = tempDir.resolve("origin-rename");
+        try (Git upstream = Git.init().setDirectory(upstreamRemote.toFile()).setInitialBranch("main").call()) {
+            configureUser(upstream);
+            write(upstreamRemote.resolve("docs/page.md"), "Title\nFirst paragraph\nSecond paragraph\nThird paragraph\n");
+            upstream.add().addFilepattern("docs").call();
+            upstream.commit().setMessage("add page").call();
+            Git.cloneRepository().setURI(upstreamRemote.toUri().toString()).setDirectory(originRemote.toFile()).call().close();
+
+            write(upstreamRemote.resolve("guides/page.md"), "Title\nFirst paragraph\nSecond paragraph\nThird paragraph, edited\n");
+            upstream.add().addFilepattern("guides").call();
+            upstream.rm().addFilepattern("docs/page.md").call();
+            upstream.commit().setMessage("move page").call();
+        }
+        Config config = config(Optional.empty(), upstreamRemote.toUri(), originRemote.toUri());
+
+        GitWorkflowResult plain = new GitWorkflowService(tempDir.resolve("workspace-plain"), new DiffAnalyzer())
+                .prepareSyncBranch(config);
+        GitWorkflowResult detected = new GitWorkflowService(tempDir.resolve("workspace-renames"), new DiffAnalyzer())
+                .prepareSyncBranch(withDiffOptions(config, MergeDiffMode.WORKING_TREE, 50));
+
+        assertThat(plain.diffMetadata().byCategory(ChangeCategory.DOCUMENT_NEW))
+                .extracting(FileChange::path)
+                .containsExactly("guides/page.md");
+        assertThat(detected.diffMetadata().changes())
+                .containsExactly(new FileChange("guides/page.md", ChangeCategory.DOCUMENT_RENAMED,
+                        Optional.of("docs/page.md")));
+    }
+
+    @Test
+    void carriesOriginTranslationOverWhenUpstreamMovesADocument() throws Exception {
+        Path upstreamRemote = tempDir.resolve("upstream-moved");
+        Path originRemote = tempDir.resolve("origin-moved");
+        try (Git upstream = Git.init().setDirectory(upstreamRemote.toFile()).setInitialBranch("main").call()) {
+            configureUser(upstream);
+            write(upstreamRemote.resolve("docs/page.md"), "Title\nFirst paragraph\nSecond paragraph\nThird paragraph\n");
+            upstream.add().addFilepattern("docs").call();
+            upstream.commit().setMessage("add page").call();
+            try (Git origin = Git.cloneRepository()
+                    .setURI(upstreamRemote.toUri().toString())
+                    .setDirectory(originRemote.toFile())
+                    .call()) {
+                configureUser(origin);
+                write(originRemote.resolve("docs/page.md"), "タイトル\n最初の段落\n二番目の段落\n三番目の段落\n");
+                origin.add().addFilepattern("docs").call();
+                origin.commit().setMessage("translate page").call();
+            }
+
+            write(upstreamRemote.resolve("guides/page.md"), "Title\nFirst paragraph\nSecond paragraph\nThird paragraph, edited\n");
+            upstream.add().addFilepattern("guides").call();
+            upstream.rm().addFilepattern("docs/page.md").call();
+            upstream.commit().setMessage("move page").call();
+        }
+        Config config = config(Optional.empty(), upstreamRemote.toUri(), originRemote.toUri());
+
+        for (MergeDiffMode mode : MergeDiffMode.values()) {
+            GitWorkflowResult result = new GitWorkflowService(tempDir.resolve("workspace-" + mode), new DiffAnalyzer())
+                    .prepareSyncBranch(withDiffOptions(config, mode, 50));
+
+            assertThat(result.diffMetadata().changes())
+                    .containsExactly(new FileChange("guides/page.md", ChangeCategory.DOCUMENT_RENAMED,
+                            Optional.of("docs/page.md")));
+            assertThat(result.originDirectory().resolve("docs/page.md")).doesNotExist();
+            try (Git origin = Git.open(result.originDirectory().toFile())) {
+                assertThat(origin.status().call().getConflicting()).isEmpty();
+            }
+
+            List<TranslationTask> tasks = new TranslationTaskPlanner().plan(result, 0);
+
+            assertThat(tasks).singleElement().satisfies(task -> {
+                assertThat(task.filePath()).isEqualTo("guides/page.md");
+                assertThat(task.existingTranslationLines()).containsExactly("タイトル", "最初の段落", "二番目の段落", "三番目の段落");
+                assertThat(task.segments()).singleElement().satisfies(segment -> {
+                    assertThat(segment.startLine()).isEqualTo(3);
+                    assertThat(segment.endLineExclusive()).isEqualTo(4);
+                });
+            });
+        }
+    }
+
+    @Test
+    void transfersOnlyTheUpstreamMainBranch() throws Exception {
+        prepareRepositories();
+        Path upstreamRemote = tempDir.resolve("upstream-remote");
+        try (Git upstream = Git.open(upstreamRemote.toFile())) {
+            configureUser(upstream);
+            upstream.checkout().setCreateBranch(true).setName("feature").call();
+            write(upstreamRemote.resolve("docs/feature.md"), "Feature\n");
+            upstream.add().addFilepattern("docs/feature.md").call();
+            upstream.commit().setMessage("feature work").call();
+            upstream.checkout().setName("main").call();
+        }
+
+        GitWorkflowService service = new GitWorkflowService(tempDir.resolve("workspace"), new DiffAnalyzer());
+        GitWorkflowResult result = service.prepareSyncBranch(config(Optional.empty()));
+
+        try (Git upstream = Git.open(result.upstreamDirectory().toFile());
+             Git origin = Git.open(result.originDirectory().toFile())) {
+            assertThat(upstream.getRepository().findRef("feature")).isNull();
+            assertThat(origin.getRepository().exactRef("refs/remotes/upstream/main")).isNotNull();
+            assertThat(origin.getRepository().exactRef("refs/remotes/upstream/feature")).isNull();
+        }
+        assertThat(result.diffMetadata().changes()).extracting(FileChange::path)
+                .doesNotContain("docs/feature.md");
+    }
+
+    @Test
+    void originCloneBorrowsUpstreamObjectsThroughAnAlternate() throws Exception {
+        RepositorySetup setup = prepareRepositories();
+        Config config = withGitOptions(config(Optional.empty()), true, 0, true);
+        GitWorkflowService service = new GitWorkflowService(tempDir.resolve("workspace"), new DiffAnalyzer());
+
+        GitWorkflowResult first = service.prepareSyncBranch(config);
+        GitWorkflowResult second = service.prepareSyncBranch(config);
+
+        assertThat(first.originDirectory().resolve(".git/objects/info/alternates"))
+                .content().contains(first.upstreamDirectory().resolve(".git/objects").toString());
+        assertThat(second.translationBranch()).isEqualTo("sync-" + setup.latestShortSha);
+        assertThat(second.mergeStatus().isSuccessful()).isTrue();
+        assertThat(second.diffMetadata().byCategory(ChangeCategory.DOCUMENT_UPDATED))
+                .extracting(FileChange::path)
+                .contains("README.md");
+    }
+
+    @Test
+    void reusesWorkspaceCloneAndFetchesIncrementally() throws Exception {
+        prepareRepositories();
+        Config config = reusingWorkspace(config(Optional.empty()));
+        GitWorkflowService service = new GitWorkflowService(tempDir.resolve("workspace"), new DiffAnalyzer());
+        GitWorkflowResult first = service.prepareSyncBranch(config);
+        Path marker = first.originDirectory().resolve(".git/reuse-marker");
+        Files.writeString(marker, "kept");
+        write(first.originDirectory().resolve("stray.md"), "left behind\n");
+
+        Path upstreamRemote = tempDir.resolve("upstream-remote");
+        String extraShortSha;
+        try (Git upstream = Git.open(upstreamRemote.toFile())) {
+            configureUser(upstream);
+            write(upstreamRemote.resolve("docs/extra.md"), "Extra\n");
+            upstream.add().addFilepattern("docs/extra.md").call();
+            extraShortSha = upstream.commit().setMessage("add extra").call().getName().substring(0, 7);
+        }
+
+        GitWorkflowResult second = service.prepareSyncBranch(config);
+
+        assertThat(second.originDirectory()).isEqualTo(first.originDirectory());
+        assertThat(marker).exists();
+        assertThat(second.originDirectory().resolve("stray.md")).doesNotExist();
+        assertThat(second.translationBranch()).isEqualTo("sync-" + extraShortSha);
+        assertThat(second.diffMetadata().changes()).extracting(FileChange::path)
+                .contains("docs/guide.md", "docs/extra.md");
+    }
+
+    @Test
+    void reusedCloneRecoversFromConflictedMerge() throws Exception {
+        ConflictSetup setup = prepareRepositoriesWithConflict();
+        Config config = reusingWorkspace(config(Optional.empty(), setup.upstreamRemote().toUri(), setup.originRemote().toUri()));
+        GitWorkflowService service = new GitWorkflowService(tempDir.resolve("workspace"), new DiffAnalyzer());
+        service.prepareSyncBranch(config);
+
+        GitWorkflowResult result = service.prepareSyncBranch(config);
+
+        assertThat(result.mergeStatus()).isEqualTo(MergeStatus.CONFLICTING);
+        assertThat(result.diffMetadata().byCategory(ChangeCategory.DOCUMENT_UPDATED))
+                .extracting(FileChange::path)
+                .contains("README.md");
+    }
+
+    @Test
+    void deepensShallowClonesUntilTheMergeBaseIsFound() throws Exception {
+        Path upstreamRemote = tempDir.resolve("upstream-long");
+        Path originRemote = tempDir.resolve("origin-long");
+        RevCommit forkPoint = null;
+        try (Git upstream = Git.init().setDirectory(upstreamRemote.toFile()).setInitialBranch("main").call()) {
+            configureUser(upstream);
+            for (int i = 0; i < 20; i++) {
+                write(upstreamRemote.resolve("docs/page" + i + ".md"), "Page " + i + "\n");
+                upstream.add().addFilepattern("docs").call();
+                RevCommit commit = upstream.commit().setMessage("page " + i).call();
+                if (i == 3) {
+                    forkPoint = commit;
+                }
+            }
+        }
+        try (Git origin = Git.cloneRepository()
+                .setURI(upstreamRemote.toUri().toString())
+                .setDirectory(originRemote.toFile())
+                .call()) {
+            configureUser(origin);
+            origin.reset().setMode(ResetType.HARD).setRef(forkPoint.getName()).call();
+            write(originRemote.resolve("docs/page0.md"), "ページ 0\n");
+            origin.add().addFilepattern("docs").call();
+            origin.commit().setMessage("translate page 0").call();
+        }
+        Config config = withGitOptions(config(Optional.empty(), upstreamRemote.toUri(), originRemote.toUri()), false, 2, false);
+
+        GitWorkflowService service = new GitWorkflowService(tempDir.resolve("workspace"), new DiffAnalyzer());
+        GitWorkflowResult result = service.prepareSyncBranch(config);
+
+        assertThat(result.mergeStatus().isSuccessful()).isTrue();
+        assertThat(result.baseUpstreamCommitSha()).isEqualTo(forkPoint.getName());
+        assertThat(result.diffMetadata().byCategory(ChangeCategory.DOCUMENT_NEW))
+                .extracting(FileChange::path)
+                .contains("docs/page4.md", "docs/page19.md")
+                .doesNotContain("docs/page3.md");
+    }
+
     private Config config(Optional<String> translationTargetSha) {
         return config(translationTargetSha, repositoryUri("upstream-remote"), repositoryUri("origin-remote"));
     }
@@ -105,6 +389,58 @@ class GitWorkflowServiceTest {
                 0.3);
     }
 
+    private Config reusingWorkspace(Config config) {
+        return withGitOptions(config, true, config.gitCloneDepth(), config.gitSharedObjects());
+    }
+
+    private Config withGitOptions(Config config, boolean reuseWorkspace, int cloneDepth, boolean sharedObjects) {
+        return new Config(config.mode(), config.upstreamUrl(), config.originUrl(), config.originBranch(),
+                config.translationBranchTemplate(), config.since(), config.dryRun(), config.translationMode(),
+                config.logFormat(), config.translatorConfig(), config.secrets(), config.translationTargetSha(),
+                config.maxFilesPerRun(), config.translationIncludePaths(), config.documentExtensions(),
+                config.llmMaxRetryAttempts(), config.llmInitialBackoffSeconds(), config.llmMaxBackoffSeconds(),
+                config.llmRetryJitterFactor(), config.translationConcurrency(), config.segmentConcurrency(),
+                config.llmRequestsPerMinute(), config.llmTokensPerMinute(), config.cacheDirectory(),
+                config.translationMemoryMaxEntries(), config.paragraphMemoryMaxEntries(),
+                config.translationBatchTokenBudget(), config.llmStreaming(), config.translationSegmentTokenBudget(),
+                config.planningConcurrency(), config.translationDecisionPrompt(), config.translationDecisionMaxTokens(),
+                config.decisionMemoryMaxEntries(), config.agentPlanner(), reuseWorkspace, cloneDepth,
+                config.gitShallowSince(), sharedObjects, config.mergeDiffMode(), config.diffRenameScore(),
+                config.catchUpMaxCommits(), config.catchUpMaxFiles());
+    }
+
+    private Config withDiffOptions(Config config, MergeDiffMode mergeDiffMode, int renameScore) {
+        return new Config(config.mode(), config.upstreamUrl(), config.originUrl(), config.originBranch(),
+                config.translationBranchTemplate(), config.since(), config.dryRun(), config.translationMode(),
+                config.logFormat(), config.translatorConfig(), config.secrets(), config.translationTargetSha(),
+                config.maxFilesPerRun(), config.translationIncludePaths(), config.documentExtensions(),
+                config.llmMaxRetryAttempts(), config.llmInitialBackoffSeconds(), config.llmMaxBackoffSeconds(),
+                config.llmRetryJitterFactor(), config.translationConcurrency(), config.segmentConcurrency(),
+                config.llmRequestsPerMinute(), config.llmTokensPerMinute(), config.cacheDirectory(),
+                config.translationMemoryMaxEntries(), config.paragraphMemoryMaxEntries(),
+                config.translationBatchTokenBudget(), config.llmStreaming(), config.translationSegmentTokenBudget(),
+                config.planningConcurrency(), config.translationDecisionPrompt(), config.translationDecisionMaxTokens(),
+                config.decisionMemoryMaxEntries(), config.agentPlanner(), config.gitReuseWorkspace(),
+                config.gitCloneDepth(), config.gitShallowSince(), config.gitSharedObjects(), mergeDiffMode,
+                renameScore, config.catchUpMaxCommits(), config.catchUpMaxFiles());
+    }
+
+    private Config withCatchUpBudget(Config config, int maxCommits, int maxFiles) {
+        return new Config(config.mode(), config.upstreamUrl(), config.originUrl(), config.originBranch(),
+                config.translationBranchTemplate(), config.since(), config.dryRun(), config.translationMode(),
+                config.logFormat(), config.translatorConfig(), config.secrets(), config.translationTargetSha(),
+                config.maxFilesPerRun(), config.translationIncludePaths(), config.documentExtensions(),
+                config.llmMaxRetryAttempts(), config.llmInitialBackoffSeconds(), config.llmMaxBackoffSeconds(),
+                config.llmRetryJitterFactor(), config.translationConcurrency(), config.segmentConcurrency(),
+                config.llmRequestsPerMinute(), config.llmTokensPerMinute(), config.cacheDirectory(),
+                config.translationMemoryMaxEntries(), config.paragraphMemoryMaxEntries(),
+                config.translationBatchTokenBudget(), config.llmStreaming(), config.translationSegmentTokenBudget(),
+                config.planningConcurrency(), config.translationDecisionPrompt(), config.translationDecisionMaxTokens(),
+                config.decisionMemoryMaxEntries(), config.agentPlanner(), config.gitReuseWorkspace(),
+                config.gitCloneDepth(), config.gitShallowSince(), config.gitSharedObjects(), config.mergeDiffMode(),
+                config.diffRenameScore(), maxCommits, maxFiles);
+    }
+
     private RepositorySetup prepareRepositories() throws Exception {
         Path upstreamRemote = tempDir.resolve("upstream-remote");
         Path originRemote = tempDir.resolve("origin-remote");
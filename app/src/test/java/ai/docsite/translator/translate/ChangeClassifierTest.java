@@ -0,0 +1,87 @@
+package ai.docsite.translator.translate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ai.docsite.translator.translate.ChangeClassifier.Verdict;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.eclipse.jgit.diff.DiffAlgorithm;
+import org.eclipse.jgit.diff.EditList;
+import org.eclipse.jgit.diff.RawText;
+import org.eclipse.jgit.diff.RawTextComparator;
+import org.junit.jupiter.api.Test;
+
+class ChangeClassifierTest {
+
+    private final ChangeClassifier classifier = new ChangeClassifier();
+
+    @Test
+    void skipsWhitespacePunctuationAndLinkTargetChanges() {
+        assertThat(verdict(List.of("# Title", "Some  text here."), List.of("# Title", "Some text here.  ")))
+                .isEqualTo(Verdict.SKIP);
+        assertThat(verdict(List.of("# Title", "Install it, then run"), List.of("# Title", "Install it; then run.")))
+                .isEqualTo(Verdict.SKIP);
+        assertThat(verdict(List.of("See [the guide](http://old.example/guide)."), List.of("See [the guide](https://new.example/guide).")))
+                .isEqualTo(Verdict.SKIP);
+    }
+
+    @Test
+    void skipsSmallSpellingFixesButNotShortWordSwaps() {
+        assertThat(verdict(List.of("Configure the recieved message"), List.of("Configure the received message")))
+                .isEqualTo(Verdict.SKIP);
+        assertThat(verdict(List.of("This is supported"), List.of("This is not supported")))
+                .isEqualTo(Verdict.ESCALATE);
+        assertThat(verdict(List.of("You can do this"), List.of("You can't do this")))
+                .isEqualTo(Verdict.ESCALATE);
+    }
+
+    @Test
+    void escalatesSymbolAndWordBoundaryChanges() {
+        assertThat(verdict(List.of("Use it when x >= 10"), List.of("Use it when x <= 10"))).isEqualTo(Verdict.ESCALATE);
+        assertThat(verdict(List.of("Returns a + b"), List.of("Returns a - b"))).isEqualTo(Verdict.ESCALATE);
+        assertThat(verdict(List.of("The plan costs $10"), List.of("The plan costs €10"))).isEqualTo(Verdict.ESCALATE);
+        assertThat(verdict(List.of("| Option | Value |"), List.of("| Option < Value |"))).isEqualTo(Verdict.ESCALATE);
+        assertThat(verdict(List.of("Set the limit to -5"), List.of("Set the limit to 5"))).isEqualTo(Verdict.ESCALATE);
+        assertThat(verdict(List.of("Run the set up step"), List.of("Run the setup step"))).isEqualTo(Verdict.ESCALATE);
+    }
+
+    @Test
+    void escalatesChangedNumbersVersionsAndIdentifiers() {
+        assertThat(verdict(List.of("The server listens on port 3000"), List.of("The server listens on port 5000")))
+                .isEqualTo(Verdict.ESCALATE);
+        assertThat(verdict(List.of("Requires version 2.3.1 or later"), List.of("Requires version 2.4.0 or later")))
+                .isEqualTo(Verdict.ESCALATE);
+        assertThat(verdict(List.of("Install Java v17 first"), List.of("Install Java v21 first")))
+                .isEqualTo(Verdict.ESCALATE);
+        assertThat(verdict(List.of("Set maxRetries to three"), List.of("Set maxRetry to three")))
+                .isEqualTo(Verdict.ESCALATE);
+        assertThat(verdict(List.of("Set retry_count in the file"), List.of("Set retry_limit in the file")))
+                .isEqualTo(Verdict.ESCALATE);
+        assertThat(verdict(List.of("Enable `cache.enabled` here"), List.of("Enable `cache.disabled` here")))
+                .isEqualTo(Verdict.ESCALATE);
+    }
+
+    @Test
+    void translatesAddedProseAndEscalatesRewrites() {
+        assertThat(verdict(List.of("# Title", "", "## Next"), List.of("# Title", "", "A new paragraph.", "", "## Next")))
+                .isEqualTo(Verdict.TRANSLATE);
+        assertThat(verdict(List.of("# Title", "Old explanation of the feature"), List.of("# Title", "A completely different explanation")))
+                .isEqualTo(Verdict.ESCALATE);
+    }
+
+    @Test
+    void treatsPunctuationChangesInsideCodeFencesAsSignificant() {
+        assertThat(verdict(List.of("```", "call(a, b)", "```"), List.of("```", "call(a; b)", "```")))
+                .isEqualTo(Verdict.ESCALATE);
+    }
+
+    private Verdict verdict(List<String> base, List<String> updated) {
+        EditList edits = DiffAlgorithm.getAlgorithm(DiffAlgorithm.SupportedAlgorithm.HISTOGRAM)
+                .diff(RawTextComparator.DEFAULT, rawText(base), rawText(updated));
+        return classifier.classify(base, updated, edits).verdict();
+    }
+
+    private static RawText rawText(List<String> lines) {
+        return new RawText(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,13 +1,25 @@
 package ai.docsite.translator.translate;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import ai.docsite.translator.translate.memory.ParagraphMemory;
+import ai.docsite.translator.translate.ratelimit.RateLimitErrors;
+import ai.docsite.translator.translate.memory.TranslationMemory;
 import ai.docsite.translator.writer.DefaultLineStructureAdjuster;
 import ai.docsite.translator.writer.DefaultLineStructureAnalyzer;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.exception.RateLimitException;
 import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class ChatModelTranslatorTest {
 
@@ -85,4 +97,199 @@ spring:
                 .anyMatch(line -> line.contains("## 代替案"))
                 .anyMatch(line -> line.contains("Colima"));
     }
+
+    @Test
+    @DisplayName("Translates all front matter scalars in a single request")
+    void batchesFrontMatterScalars() {
+        List<String> prompts = new ArrayList<>();
+        ChatModel stubModel = new ChatModel() {
+            @Override
+            public String chat(String prompt) {
+                prompts.add(prompt);
+                if (prompt.contains("<entries>")) {
+                    return "[1] はじめに\n[2] \"最初の手順\"\n[3] 概要";
+                }
+                return "本文";
+            }
+        };
+        ChatModelTranslator translator = new ChatModelTranslator(stubModel, "TestProvider", "test-model");
+
+        List<String> result = translator.translate(List.of(
+                "---",
+                "title: Getting Started",
+                "description: \"First steps\"",
+                "sidebar_label:  Overview",
+                "---",
+                "Body"));
+
+        assertThat(result).containsExactly(
+                "---",
+                "title: はじめに",
+                "description: \"最初の手順\"",
+                "sidebar_label:  概要",
+                "---",
+                "本文");
+        assertThat(prompts).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Falls back to per-key requests for scalars missing from the batched response")
+    void fallsBackForMissingBatchedScalars() {
+        List<String> prompts = new ArrayList<>();
+        ChatModel stubModel = new ChatModel() {
+            @Override
+            public String chat(String prompt) {
+                prompts.add(prompt);
+                if (prompt.contains("<entries>")) {
+                    return "[1] はじめに";
+                }
+                if (prompt.contains("<text>")) {
+                    return "最初の手順";
+                }
+                return "本文";
+            }
+        };
+        ChatModelTranslator translator = new ChatModelTranslator(stubModel, "TestProvider", "test-model");
+
+        List<String> result = translator.translate(List.of("---", "title: Getting Started", "description: First steps", "---", "Body"));
+
+        assertThat(result).containsExactly("---", "title: はじめに", "description: 最初の手順", "---", "本文");
+        assertThat(prompts).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Fails instead of falling back to per-key requests when the batched request is rate limited")
+    void propagatesRateLimitedFrontMatterRequests() {
+        List<String> prompts = new ArrayList<>();
+        ChatModel stubModel = new ChatModel() {
+            @Override
+            public String chat(String prompt) {
+                prompts.add(prompt);
+                throw new RateLimitException("429 Too Many Requests");
+            }
+        };
+        ChatModelTranslator translator = new ChatModelTranslator(stubModel, "TestProvider", "test-model");
+
+        assertThatThrownBy(() -> translator.translate(List.of("---", "title: Getting Started", "description: First steps", "---", "Body")))
+                .isInstanceOf(TranslationException.class)
+                .satisfies(ex -> assertThat(RateLimitErrors.isRateLimitError(ex)).isTrue());
+        assertThat(prompts).singleElement().asString().contains("<entries>");
+    }
+
+    @Test
+    @DisplayName("Maps batched fragments back by id and leaves mismatched fragments empty")
+    void splitsBatchedResponseByFragment() {
+        ChatModel stubModel = new ChatModel() {
+            @Override
+            public String chat(String prompt) {
+                return """
+<fragment id="2">
+二行目
+</fragment>
+<fragment id="1">
+一
+</fragment>
+<fragment id="3">
+三
+余分
+</fragment>
+""";
+            }
+        };
+        ChatModelTranslator translator = new ChatModelTranslator(stubModel, "TestProvider", "test-model");
+
+        List<List<String>> result = translator.translateBatch(List.of(List.of("One"), List.of("Second line"), List.of("Three")));
+
+        assertThat(result).containsExactly(List.of("一"), List.of("二行目"), List.of());
+    }
+
+    @Test
+    @DisplayName("Assembles streamed partial responses without calling the blocking model")
+    void assemblesStreamedBody() {
+        List<String> blockingPrompts = new ArrayList<>();
+        ChatModel blockingModel = new ChatModel() {
+            @Override
+            public String chat(String prompt) {
+                blockingPrompts.add(prompt);
+                return "unused";
+            }
+        };
+        StreamingChatModel streamingModel = new StreamingChatModel() {
+            @Override
+            public void chat(String prompt, StreamingChatResponseHandler handler) {
+                handler.onPartialResponse("一行");
+                handler.onPartialResponse("目\n二行目  \n");
+                handler.onCompleteResponse(ChatResponse.builder().aiMessage(AiMessage.from("一行目\n二行目\n")).build());
+            }
+        };
+        ChatModelTranslator translator = new ChatModelTranslator(blockingModel, streamingModel, "TestProvider", "test-model");
+
+        List<String> result = translator.translate(List.of("Line 1", "Line 2"));
+
+        assertThat(result).containsExactly("一行目", "二行目");
+        assertThat(blockingPrompts).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Stops reading a diverging stream and keeps its lines without a second request")
+    void keepsPartialOutputWhenStreamDiverges() {
+        List<String> blockingPrompts = new ArrayList<>();
+        ChatModel blockingModel = new ChatModel() {
+            @Override
+            public String chat(String prompt) {
+                blockingPrompts.add(prompt);
+                return "一\n二";
+            }
+        };
+        StreamingChatModel streamingModel = new StreamingChatModel() {
+            @Override
+            public void chat(String prompt, StreamingChatResponseHandler handler) {
+                handler.onPartialResponse("一\n二\n");
+                handler.onPartialResponse("余分\n".repeat(10));
+                handler.onPartialResponse("ignored\n");
+                handler.onCompleteResponse(ChatResponse.builder().aiMessage(AiMessage.from("...")).build());
+            }
+        };
+        ChatModelTranslator translator = new ChatModelTranslator(blockingModel, streamingModel, "TestProvider", "test-model");
+
+        List<String> result = translator.translate(List.of("One", "Two"));
+
+        // two source lines allow at most seven output lines; the eighth marks the divergence
+        assertThat(result).hasSize(8).startsWith("一", "二").doesNotContain("ignored");
+        assertThat(blockingPrompts).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Keeps the padded output of a cut-off stream out of the memories")
+    void doesNotRememberOutputOfDivergingStream(@TempDir Path cacheDir) {
+        ChatModel blockingModel = new ChatModel() {
+            @Override
+            public String chat(String prompt) {
+                throw new IllegalStateException("no blocking request expected");
+            }
+        };
+        StreamingChatModel streamingModel = new StreamingChatModel() {
+            @Override
+            public void chat(String prompt, StreamingChatResponseHandler handler) {
+                handler.onPartialResponse("導入\n```\n");
+                handler.onPartialResponse("```\n```\n```\n");
+                handler.onCompleteResponse(ChatResponse.builder().aiMessage(AiMessage.from("...")).build());
+            }
+        };
+        ChatModelTranslator translator = new ChatModelTranslator(blockingModel, streamingModel, "TestProvider", "test-model");
+        TranslationMemory memory = TranslationMemory.open(cacheDir, 100, "GEMINI", "model", "1");
+        ParagraphMemory paragraphs = ParagraphMemory.open(cacheDir, 100);
+        TranslationService service = new TranslationService(
+                new TranslatorFactory(translator, new PassThroughTranslator(), new MockTranslator()),
+                new LineStructureFormatter(new DefaultLineStructureAnalyzer(), new DefaultLineStructureAdjuster()),
+                1, 1, 1, 0.0, 1, 1, memory, paragraphs);
+        List<String> source = List.of("Intro", "```", "code", "```", "Outro");
+
+        TranslationResult result = service.translateTask(new TranslationTask("docs/guide.md", source,
+                List.of("", "", "", "", ""), List.of(new TranslationSegment(0, 5))), TranslationMode.PRODUCTION);
+
+        assertThat(result.lines()).hasSize(5).startsWith("導入");
+        assertThat(memory.lookup(source)).isEmpty();
+        assertThat(paragraphs.lookup(source)).isEmpty();
+    }
 }
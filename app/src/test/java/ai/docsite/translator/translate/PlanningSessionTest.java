@@ -0,0 +1,85 @@
+package ai.docsite.translator.translate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.diff.EditList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PlanningSessionTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsFilesAtSeveralCommitsOfTheSameRepository() throws Exception {
+        String first;
+        String second;
+        try (Git git = Git.init().setDirectory(tempDir.toFile()).call()) {
+            Files.writeString(tempDir.resolve("doc.md"), "one\ntwo\n");
+            git.add().addFilepattern("doc.md").call();
+            first = git.commit().setMessage("first").call().getName();
+            Files.writeString(tempDir.resolve("doc.md"), "uno\n");
+            git.add().addFilepattern("doc.md").call();
+            second = git.commit().setMessage("second").call().getName();
+        }
+
+        try (PlanningSession session = new PlanningSession()) {
+            assertThat(session.readLines(tempDir, first, "doc.md")).containsExactly("one", "two");
+            assertThat(session.readLines(tempDir, second, "doc.md")).containsExactly("uno");
+            assertThat(session.readLines(tempDir, first, "doc.md")).containsExactly("one", "two");
+            assertThat(session.readLines(tempDir, second, "missing.md")).isEmpty();
+            assertThat(session.readLines(tempDir.resolve("not-a-repo"), first, "doc.md")).isEmpty();
+        }
+    }
+
+    @Test
+    void answersPreloadedPathsWithoutWalkingTheTreeAgain() throws Exception {
+        String commit;
+        try (Git git = Git.init().setDirectory(tempDir.toFile()).call()) {
+            Files.createDirectories(tempDir.resolve("docs/guide"));
+            Files.writeString(tempDir.resolve("docs/a.md"), "alpha\n");
+            Files.writeString(tempDir.resolve("docs/guide/b.md"), "beta\ngamma\n");
+            Files.writeString(tempDir.resolve("docs/c.md"), "not requested\n");
+            git.add().addFilepattern("docs").call();
+            commit = git.commit().setMessage("docs").call().getName();
+        }
+
+        try (PlanningSession session = new PlanningSession()) {
+            session.preload(tempDir, commit, List.of("docs/a.md", "docs/guide/b.md", "docs/removed.md"));
+            session.prefetch(tempDir, commit, List.of("docs/guide/b.md", "docs/removed.md"));
+
+            assertThat(session.readLines(tempDir, commit, "docs/a.md")).containsExactly("alpha");
+            assertThat(session.readLines(tempDir, commit, "docs/guide/b.md")).containsExactly("beta", "gamma");
+            assertThat(session.readLines(tempDir, commit, "docs/guide/b.md")).containsExactly("beta", "gamma");
+            assertThat(session.readLines(tempDir, commit, "docs/removed.md")).isEmpty();
+        }
+    }
+
+    @Test
+    void computesEditListsOncePerBlobPair() {
+        AtomicInteger computations = new AtomicInteger();
+        try (PlanningSession session = new PlanningSession()) {
+            EditList first = session.edits("base", "new", () -> {
+                computations.incrementAndGet();
+                return new EditList();
+            });
+            EditList second = session.edits("base", "new", () -> {
+                computations.incrementAndGet();
+                return new EditList();
+            });
+            session.edits("base", "other", () -> {
+                computations.incrementAndGet();
+                return new EditList();
+            });
+
+            assertThat(second).isSameAs(first);
+            assertThat(computations).hasValue(2);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ai.docsite.translator.translate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import org.eclipse.jgit.diff.DiffAlgorithm;
+import org.eclipse.jgit.diff.EditList;
+import org.junit.jupiter.api.Test;
+
+class SourceTextTest {
+
+    @Test
+    void splitsLinesLikeBufferedReader() {
+        SourceText text = text("first\r\nsecond\rthird\n\nlast");
+
+        assertThat(text.lines()).containsExactly("first", "second", "third", "", "last");
+        assertThat(SourceText.of(new byte[0]).lines()).isEmpty();
+        assertThat(text("héllo\n").lines()).containsExactly("héllo");
+    }
+
+    @Test
+    void ignoresLineTerminatorsWhenDiffing() {
+        EditList same = diff(text("alpha\nbeta\n"), text("alpha\r\nbeta"));
+        EditList changed = diff(text("alpha\nbeta\ngamma\n"), text("alpha\r\nBETA\r\ngamma\r\n"));
+
+        assertThat(same).isEmpty();
+        assertThat(changed).hasSize(1);
+        assertThat(changed.get(0).getBeginA()).isEqualTo(1);
+        assertThat(changed.get(0).getEndA()).isEqualTo(2);
+    }
+
+    @Test
+    void findsConflictMarkersWithoutDecodingLines() {
+        assertThat(text("intro\n<<<<<<< HEAD\nours\n").hasLineStartingWith("<<<<<<<")).isTrue();
+        assertThat(text("intro\n  <<<<<<< quoted\n").hasLineStartingWith("<<<<<<<")).isFalse();
+    }
+
+    @Test
+    void marksFencedLinesOnTheRawBytes() {
+        SourceText text = text("intro\n  ```java\ncode\n```\nouter\n\t```\n");
+
+        assertThat(text.fencedLines()).containsExactly(false, true, true, true, false, true);
+    }
+
+    private static SourceText text(String content) {
+        return SourceText.of(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static EditList diff(SourceText base, SourceText updated) {
+        return DiffAlgorithm.getAlgorithm(DiffAlgorithm.SupportedAlgorithm.HISTOGRAM)
+                .diff(SourceText.LINE_CONTENT, base, updated);
+    }
+}
@@ -0,0 +1,41 @@
+package ai.docsite.translator.translate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StreamingLineAssemblerTest {
+
+    @Test
+    void assemblesLinesSplitAcrossPartialResponses() {
+        StreamingLineAssembler assembler = new StreamingLineAssembler(List.of("One", "Two", "Three"));
+
+        assertThat(assembler.accept("一  \r")).isTrue();
+        assertThat(assembler.accept("\n二")).isTrue();
+        assertThat(assembler.accept("つ目\n三")).isTrue();
+
+        assertThat(assembler.finish()).containsExactly("一", "二つ目", "三");
+        assertThat(assembler.hasDiverged()).isFalse();
+    }
+
+    @Test
+    void divergesWhenOutputGrowsFarBeyondTheSource() {
+        StreamingLineAssembler assembler = new StreamingLineAssembler(List.of("One", "Two"));
+
+        assertThat(assembler.accept("1\n2\n3\n4\n5\n6\n7")).isTrue();
+        assertThat(assembler.accept("\n8\n")).isFalse();
+
+        assertThat(assembler.hasDiverged()).isTrue();
+        assertThat(assembler.accept("9\n")).isFalse();
+    }
+
+    @Test
+    void toleratesOneSurplusFenceButNotMore() {
+        StreamingLineAssembler assembler = new StreamingLineAssembler(List.of("```", "code", "```"));
+
+        assertThat(assembler.accept("```\ncode\n```\n```\n")).isTrue();
+        assertThat(assembler.accept("```\n")).isFalse();
+        assertThat(assembler.divergence()).contains("code fences");
+    }
+}
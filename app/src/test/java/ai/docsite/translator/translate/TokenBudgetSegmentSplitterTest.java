@@ -0,0 +1,42 @@
+package ai.docsite.translator.translate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TokenBudgetSegmentSplitterTest {
+
+    private static final String PROSE = "x".repeat(36);
+
+    @Test
+    void keepsSegmentsWithinBudgetWhole() {
+        List<String> lines = List.of("# Title", "", PROSE, PROSE);
+
+        List<TranslationSegment> result = new TokenBudgetSegmentSplitter(1_000).split(lines, List.of(new TranslationSegment(0, 4)));
+
+        assertThat(result).containsExactly(new TranslationSegment(0, 4));
+    }
+
+    @Test
+    void prefersBreaksBeforeHeadingsAndAfterBlankLines() {
+        // each prose line is estimated at 10 tokens
+        List<String> lines = List.of(PROSE, PROSE, "", PROSE, PROSE, PROSE, "# Next", PROSE);
+
+        List<TranslationSegment> result = new TokenBudgetSegmentSplitter(35).split(lines, List.of(new TranslationSegment(0, 8)));
+
+        assertThat(result).containsExactly(
+                new TranslationSegment(0, 3),
+                new TranslationSegment(3, 6),
+                new TranslationSegment(6, 8));
+    }
+
+    @Test
+    void doesNotBreakInsideCodeFences() {
+        List<String> lines = List.of(PROSE, PROSE, "```", PROSE, PROSE, "```", PROSE);
+
+        List<TranslationSegment> result = new TokenBudgetSegmentSplitter(40).split(lines, List.of(new TranslationSegment(0, 7)));
+
+        assertThat(result).containsExactly(new TranslationSegment(0, 2), new TranslationSegment(2, 7));
+    }
+}
@@ -0,0 +1,129 @@
+package ai.docsite.translator.translate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ai.docsite.translator.translate.memory.DecisionMemory;
+import dev.langchain4j.model.chat.ChatModel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.diff.EditList;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TranslationDecisionServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void sendsOnlyChangedHunksInDiffMode() {
+        List<String> prompts = new ArrayList<>();
+        TranslationDecisionService service = new TranslationDecisionService(recordingModel(prompts), DecisionPromptMode.DIFF, 0);
+        List<String> base = numberedLines(100);
+        List<String> updated = new ArrayList<>(base);
+        updated.set(50, "Rewritten line 50");
+
+        assertThat(service.shouldTranslate("docs/page.md", base, updated)).isTrue();
+
+        assertThat(prompts).singleElement().satisfies(prompt -> {
+            assertThat(prompt).contains("-Line 50", "+Rewritten line 50", " Line 47", " Line 53");
+            assertThat(prompt).doesNotContain("Line 10\n", "Line 90\n");
+        });
+    }
+
+    @Test
+    void switchesToHunksWhenFullDocumentsExceedTheTokenCap() {
+        List<String> prompts = new ArrayList<>();
+        TranslationDecisionService service = new TranslationDecisionService(recordingModel(prompts), DecisionPromptMode.FULL, 40);
+        List<String> base = numberedLines(400);
+        List<String> updated = new ArrayList<>(base);
+        updated.set(10, "Changed early");
+        updated.set(390, "Changed late");
+
+        service.shouldTranslate("docs/page.md", base, updated);
+
+        assertThat(prompts).singleElement().satisfies(prompt -> {
+            assertThat(prompt).contains("+Changed early", "1 more hunk(s) omitted");
+            assertThat(prompt).doesNotContain("=== ORIGINAL CONTENT ===", "+Changed late");
+        });
+    }
+
+    @Test
+    void formatsHunksFromTheGivenTextsAndEdits() {
+        List<String> prompts = new ArrayList<>();
+        TranslationDecisionService service = new TranslationDecisionService(recordingModel(prompts), DecisionPromptMode.DIFF, 0);
+        SourceText base = SourceText.of("Line 0\r\nLine 1\r\nLine 2\r\n".getBytes(StandardCharsets.UTF_8));
+        SourceText updated = SourceText.of("Line 0\r\nChanged 1\r\nChanged 2\r\n".getBytes(StandardCharsets.UTF_8));
+        // only the first change is handed over, as if the caller had diffed it that way
+        EditList edits = new EditList();
+        edits.add(new Edit(1, 2, 1, 2));
+
+        service.shouldTranslate("docs/page.md", base, updated, edits, null, null);
+
+        assertThat(prompts).singleElement().satisfies(prompt -> {
+            assertThat(prompt).contains("-Line 1\n", "+Changed 1\n", " Line 2\n");
+            assertThat(prompt).doesNotContain("\r", "+Changed 2");
+        });
+    }
+
+    @Test
+    void reusesRememberedDecisionForTheSameBlobPair() {
+        List<String> prompts = new ArrayList<>();
+        List<String> base = numberedLines(10);
+        List<String> updated = new ArrayList<>(base);
+        updated.set(5, "Rewritten line 5");
+        DecisionMemory memory = DecisionMemory.open(tempDir, 10, "OLLAMA", "model", "1");
+        new TranslationDecisionService(recordingModel(prompts), DecisionPromptMode.FULL, 0, memory)
+                .shouldTranslate("docs/page.md", base, updated, null, "base-blob", "new-blob");
+        memory.close();
+
+        TranslationDecisionService rerun = new TranslationDecisionService(recordingModel(prompts), DecisionPromptMode.FULL, 0,
+                DecisionMemory.open(tempDir, 10, "OLLAMA", "model", "1"));
+
+        assertThat(rerun.shouldTranslate("docs/other.md", base, updated, null, "base-blob", "new-blob")).isTrue();
+        assertThat(rerun.shouldTranslate("docs/page.md", base, updated, null, "base-blob", "other-blob")).isTrue();
+        assertThat(prompts).hasSize(2);
+    }
+
+    @Test
+    void keepsDecisionsOfDifferentTokenCapsApart() {
+        List<String> prompts = new ArrayList<>();
+        List<String> base = numberedLines(10);
+        List<String> updated = new ArrayList<>(base);
+        updated.set(5, "Rewritten line 5");
+        String capped = TranslationDecisionService.memoryVersion(DecisionPromptMode.DIFF, 1_000);
+        DecisionMemory memory = DecisionMemory.open(tempDir, 10, "OLLAMA", "model", capped);
+        new TranslationDecisionService(recordingModel(prompts), DecisionPromptMode.DIFF, 1_000, memory)
+                .shouldTranslate("docs/page.md", base, updated, null, "base-blob", "new-blob");
+        memory.close();
+
+        String uncapped = TranslationDecisionService.memoryVersion(DecisionPromptMode.DIFF, 0);
+        new TranslationDecisionService(recordingModel(prompts), DecisionPromptMode.DIFF, 0,
+                DecisionMemory.open(tempDir, 10, "OLLAMA", "model", uncapped))
+                .shouldTranslate("docs/page.md", base, updated, null, "base-blob", "new-blob");
+
+        assertThat(uncapped).isNotEqualTo(capped);
+        assertThat(prompts).hasSize(2);
+    }
+
+    private static ChatModel recordingModel(List<String> prompts) {
+        return new ChatModel() {
+            @Override
+            public String chat(String prompt) {
+                prompts.add(prompt);
+                return "YES";
+            }
+        };
+    }
+
+    private static List<String> numberedLines(int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add("Line " + i);
+        }
+        return lines;
+    }
+}
@@ -3,12 +3,19 @@ package ai.docsite.translator.translate;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import ai.docsite.translator.translate.memory.ParagraphMemory;
+import ai.docsite.translator.translate.memory.TranslationMemory;
 import ai.docsite.translator.writer.DefaultLineStructureAdjuster;
 import ai.docsite.translator.writer.DefaultLineStructureAnalyzer;
 import dev.langchain4j.exception.RateLimitException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class TranslationServiceTest {
 
@@ -29,6 +36,188 @@ class TranslationServiceTest {
         assertThat(outcome.failedFiles()).containsExactly("docs/error.md");
     }
 
+    @Test
+    void translatesFilesConcurrentlyAndKeepsTaskOrder() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        Translator slowTranslator = lines -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                bothStarted.countDown();
+                bothStarted.await(5, TimeUnit.SECONDS);
+                if (lines.get(0).equals("fail")) {
+                    throw new TranslationException("boom", null);
+                }
+                return List.of("JA " + lines.get(0));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new TranslationException("interrupted", ex);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        };
+        TranslatorFactory factory = new TranslatorFactory(slowTranslator, new PassThroughTranslator(), new MockTranslator());
+        LineStructureFormatter formatter = new LineStructureFormatter(new DefaultLineStructureAnalyzer(), new DefaultLineStructureAdjuster());
+        TranslationService service = new TranslationService(factory, formatter, 1, 1, 1, 0.0, 2, 1);
+        List<TranslationTask> tasks = List.of(
+                new TranslationTask("docs/a.md", List.of("a"), List.of(""), List.of(new TranslationSegment(0, 1))),
+                new TranslationTask("docs/fail.md", List.of("fail"), List.of(""), List.of(new TranslationSegment(0, 1))),
+                new TranslationTask("docs/b.md", List.of("b"), List.of(""), List.of(new TranslationSegment(0, 1))));
+
+        TranslationOutcome outcome = service.translate(tasks, TranslationMode.PRODUCTION);
+
+        assertThat(outcome.processedFilePaths()).containsExactly("docs/a.md", "docs/b.md");
+        assertThat(outcome.results().get(0).lines()).containsExactly("JA a");
+        assertThat(outcome.results().get(1).lines()).containsExactly("JA b");
+        assertThat(outcome.failedFiles()).containsExactly("docs/fail.md");
+        assertThat(maxInFlight.get()).isEqualTo(2);
+    }
+
+    @Test
+    void translatesSegmentsConcurrentlyAndReassemblesByStartLine() {
+        CountDownLatch allStarted = new CountDownLatch(3);
+        Translator latchedTranslator = lines -> {
+            allStarted.countDown();
+            try {
+                allStarted.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new TranslationException("interrupted", ex);
+            }
+            return lines.stream().map(line -> "JA " + line).toList();
+        };
+        TranslatorFactory factory = new TranslatorFactory(latchedTranslator, new PassThroughTranslator(), new MockTranslator());
+        LineStructureFormatter formatter = new LineStructureFormatter(new DefaultLineStructureAnalyzer(), new DefaultLineStructureAdjuster());
+        TranslationService service = new TranslationService(factory, formatter, 1, 1, 1, 0.0, 1, 3);
+        TranslationTask task = new TranslationTask("docs/large.md",
+                List.of("one", "two", "three", "four", "five"),
+                List.of("一", "二", "三", "四", "五"),
+                List.of(new TranslationSegment(4, 5), new TranslationSegment(0, 1), new TranslationSegment(2, 3)));
+
+        TranslationResult result = service.translateTask(task, TranslationMode.PRODUCTION);
+
+        assertThat(result.lines()).containsExactly("JA one", "二", "JA three", "四", "JA five");
+        assertThat(allStarted.getCount()).isZero();
+    }
+
+    @Test
+    void reusesTranslationMemoryForRepeatedSegments(@TempDir Path cacheDir) {
+        AtomicInteger calls = new AtomicInteger();
+        Translator countingTranslator = lines -> {
+            calls.incrementAndGet();
+            return lines.stream().map(line -> "JA " + line).toList();
+        };
+        TranslatorFactory factory = new TranslatorFactory(countingTranslator, new PassThroughTranslator(), new MockTranslator());
+        LineStructureFormatter formatter = new LineStructureFormatter(new DefaultLineStructureAnalyzer(), new DefaultLineStructureAdjuster());
+        TranslationMemory memory = TranslationMemory.open(cacheDir, 100, "GEMINI", "model", "1");
+        TranslationService service = new TranslationService(factory, formatter, 1, 1, 1, 0.0, 1, 1, memory,
+                ParagraphMemory.disabled());
+        TranslationTask first = new TranslationTask("docs/v1/guide.md",
+                List.of("Intro", "Shared paragraph"),
+                List.of("", ""),
+                List.of(new TranslationSegment(0, 2)));
+        TranslationTask duplicate = new TranslationTask("docs/v2/guide.md",
+                List.of("Title", "Intro", "Shared paragraph"),
+                List.of("題名", "", ""),
+                List.of(new TranslationSegment(1, 3)));
+
+        service.translateTask(first, TranslationMode.PRODUCTION);
+        TranslationResult result = service.translateTask(duplicate, TranslationMode.PRODUCTION);
+
+        assertThat(result.lines()).containsExactly("題名", "JA Intro", "JA Shared paragraph");
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotRememberTranslationsWithTheWrongLineCount(@TempDir Path cacheDir) {
+        AtomicInteger calls = new AtomicInteger();
+        Translator shortTranslator = lines -> {
+            calls.incrementAndGet();
+            return List.of("JA " + lines.get(0));
+        };
+        TranslatorFactory factory = new TranslatorFactory(shortTranslator, new PassThroughTranslator(), new MockTranslator());
+        LineStructureFormatter formatter = new LineStructureFormatter(new DefaultLineStructureAnalyzer(),
+                new DefaultLineStructureAdjuster());
+        TranslationMemory memory = TranslationMemory.open(cacheDir, 100, "GEMINI", "model", "1");
+        ParagraphMemory paragraphs = ParagraphMemory.open(cacheDir, 100);
+        TranslationService service = new TranslationService(factory, formatter, 1, 1, 1, 0.0, 1, 1, memory,
+                paragraphs);
+        TranslationTask task = new TranslationTask("docs/guide.md",
+                List.of("Intro", "Body"),
+                List.of("", ""),
+                List.of(new TranslationSegment(0, 2)));
+
+        TranslationResult first = service.translateTask(task, TranslationMode.PRODUCTION);
+        service.translateTask(task, TranslationMode.PRODUCTION);
+
+        assertThat(first.lines()).containsExactly("JA Intro", "");
+        assertThat(memory.lookup(List.of("Intro", "Body"))).isEmpty();
+        assertThat(paragraphs.lookup(List.of("Intro", "Body"))).isEmpty();
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void reusesKnownParagraphsDespitePunctuationChanges(@TempDir Path cacheDir) {
+        AtomicInteger calls = new AtomicInteger();
+        Translator countingTranslator = lines -> {
+            calls.incrementAndGet();
+            return lines.stream().map(line -> "JA " + line).toList();
+        };
+        TranslatorFactory factory = new TranslatorFactory(countingTranslator, new PassThroughTranslator(), new MockTranslator());
+        LineStructureFormatter formatter = new LineStructureFormatter(new DefaultLineStructureAnalyzer(), new DefaultLineStructureAdjuster());
+        ParagraphMemory paragraphs = ParagraphMemory.open(cacheDir, 100);
+        paragraphs.index(List.of("## Setup", "", "Install the CLI first,", "then run it."),
+                List.of("## セットアップ", "", "まず CLI をインストールし、", "実行します。"));
+        TranslationService service = new TranslationService(factory, formatter, 1, 1, 1, 0.0, 1, 1,
+                TranslationMemory.disabled(), paragraphs);
+        TranslationTask task = new TranslationTask("docs/setup.md",
+                List.of("## Setup", "", "Install the CLI first", "then run it!"),
+                List.of("## セットアップ", "", "", ""),
+                List.of(new TranslationSegment(2, 4)));
+
+        TranslationResult result = service.translateTask(task, TranslationMode.PRODUCTION);
+
+        assertThat(result.lines()).containsExactly("## セットアップ", "", "まず CLI をインストールし、", "実行します。");
+        assertThat(calls.get()).isZero();
+    }
+
+    @Test
+    void batchesSmallSegmentsOfDifferentFilesAndFallsBackPerSegment() {
+        List<Integer> batchSizes = new ArrayList<>();
+        AtomicInteger singleCalls = new AtomicInteger();
+        Translator batchingTranslator = new Translator() {
+            @Override
+            public List<String> translate(List<String> sourceLines) {
+                singleCalls.incrementAndGet();
+                return sourceLines.stream().map(line -> "JA " + line).toList();
+            }
+
+            @Override
+            public List<List<String>> translateBatch(List<List<String>> fragments) {
+                batchSizes.add(fragments.size());
+                return fragments.stream()
+                        .map(fragment -> fragment.contains("c") ? List.<String>of() : fragment.stream().map(line -> "BATCH " + line).toList())
+                        .toList();
+            }
+        };
+        TranslatorFactory factory = new TranslatorFactory(batchingTranslator, new PassThroughTranslator(), new MockTranslator());
+        LineStructureFormatter formatter = new LineStructureFormatter(new DefaultLineStructureAnalyzer(), new DefaultLineStructureAdjuster());
+        TranslationService service = new TranslationService(factory, formatter, 1, 1, 1, 0.0, 1, 1,
+                TranslationMemory.disabled(), ParagraphMemory.disabled(), 1_000);
+        List<TranslationTask> tasks = List.of(
+                new TranslationTask("docs/a.md", List.of("a"), List.of(""), List.of(new TranslationSegment(0, 1))),
+                new TranslationTask("docs/b.md", List.of("b"), List.of(""), List.of(new TranslationSegment(0, 1))),
+                new TranslationTask("docs/c.md", List.of("c"), List.of(""), List.of(new TranslationSegment(0, 1))));
+
+        TranslationOutcome outcome = service.translate(tasks, TranslationMode.PRODUCTION);
+
+        assertThat(batchSizes).containsExactly(3);
+        assertThat(singleCalls.get()).isEqualTo(1);
+        assertThat(outcome.results()).extracting(TranslationResult::lines)
+                .containsExactly(List.of("BATCH a"), List.of("BATCH b"), List.of("JA c"));
+    }
+
     @Test
     void retriesOnRateLimitExceptionAndEventuallySucceeds() {
         AtomicInteger attemptCount = new AtomicInteger(0);
@@ -232,13 +421,17 @@ class TranslationServiceTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("jitterFactor");
 
-        assertThatThrownBy(() -> new TranslationService(factory, formatter, 6, 1, 60, 0.3, -1))
+        assertThatThrownBy(() -> new TranslationService(factory, formatter, 6, 1, 60, 0.3, 0, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("translationConcurrency");
+
+        assertThatThrownBy(() -> new TranslationService(factory, formatter, 6, 1, 60, 0.3, 1, 0))
                 .isInstanceOf(IllegalArgumentException.class)
-                .hasMessageContaining("maxFilesPerRun");
+                .hasMessageContaining("segmentConcurrency");
     }
 
     @Test
-    void multipliesProviderRetryDelayByMaxFilesPerRun() {
+    void waitsForOneProviderRetryDelay() {
         AtomicInteger attemptCount = new AtomicInteger(0);
         Translator retryAfterTranslator = lines -> {
             int attempt = attemptCount.incrementAndGet();
@@ -250,8 +443,8 @@ class TranslationServiceTest {
         };
         TranslatorFactory factory = new TranslatorFactory(retryAfterTranslator, new PassThroughTranslator(), new MockTranslator());
         LineStructureFormatter formatter = new LineStructureFormatter(new DefaultLineStructureAnalyzer(), new DefaultLineStructureAdjuster());
-        // maxFilesPerRun=3 means we multiply the delay by 3
-        TranslationService service = new TranslationService(factory, formatter, 5, 10, 60, 0.0, 3);
+        // the shared rate limiter already holds other callers, so the provider delay is not scaled
+        TranslationService service = new TranslationService(factory, formatter, 5, 10, 60, 0.0);
         TranslationTask task = new TranslationTask("docs/multiplied-delay.md",
                 List.of("Test"),
                 List.of(""),
@@ -264,40 +457,9 @@ class TranslationServiceTest {
         assertThat(outcome.results()).hasSize(1);
         assertThat(outcome.failedFiles()).isEmpty();
         assertThat(attemptCount.get()).isEqualTo(2);
-        // Should wait at least 2s * 3 = 6s (6000ms), not the 10s from initialBackoff
-        assertThat(duration).isGreaterThanOrEqualTo(5900);
-        assertThat(duration).isLessThan(10000);
-    }
-
-    @Test
-    void doesNotMultiplyWhenMaxFilesPerRunIsZero() {
-        AtomicInteger attemptCount = new AtomicInteger(0);
-        Translator retryAfterTranslator = lines -> {
-            int attempt = attemptCount.incrementAndGet();
-            if (attempt < 2) {
-                throw new TranslationException("Rate limited, retry in 2s", new RateLimitException("429"));
-            }
-            return List.of("Success");
-        };
-        TranslatorFactory factory = new TranslatorFactory(retryAfterTranslator, new PassThroughTranslator(), new MockTranslator());
-        LineStructureFormatter formatter = new LineStructureFormatter(new DefaultLineStructureAnalyzer(), new DefaultLineStructureAdjuster());
-        // maxFilesPerRun=0 (unlimited) means we don't multiply
-        TranslationService service = new TranslationService(factory, formatter, 5, 10, 60, 0.0, 0);
-        TranslationTask task = new TranslationTask("docs/no-multiply.md",
-                List.of("Test"),
-                List.of(""),
-                List.of(new TranslationSegment(0, 1)));
-
-        long startTime = System.currentTimeMillis();
-        TranslationOutcome outcome = service.translate(List.of(task), TranslationMode.PRODUCTION);
-        long duration = System.currentTimeMillis() - startTime;
-
-        assertThat(outcome.results()).hasSize(1);
-        assertThat(outcome.failedFiles()).isEmpty();
-        assertThat(attemptCount.get()).isEqualTo(2);
-        // Should use the provider's 2s delay as-is, not multiply by 0
+        // Should wait the provider's 2s once, not 2s * 3 or the 10s from initialBackoff
         assertThat(duration).isGreaterThanOrEqualTo(1900);
-        assertThat(duration).isLessThan(5000);
+        assertThat(duration).isLessThan(4000);
     }
 
     @Test
@@ -313,7 +475,7 @@ class TranslationServiceTest {
         };
         TranslatorFactory factory = new TranslatorFactory(retryAfterTranslator, new PassThroughTranslator(), new MockTranslator());
         LineStructureFormatter formatter = new LineStructureFormatter(new DefaultLineStructureAnalyzer(), new DefaultLineStructureAdjuster());
-        TranslationService service = new TranslationService(factory, formatter, 5, 10, 60, 0.0, 3);
+        TranslationService service = new TranslationService(factory, formatter, 5, 10, 60, 0.0);
         TranslationTask task = new TranslationTask("docs/json-retry.md",
                 List.of("Test"),
                 List.of(""),
@@ -326,7 +488,8 @@ class TranslationServiceTest {
         assertThat(outcome.results()).hasSize(1);
         assertThat(outcome.failedFiles()).isEmpty();
         assertThat(attemptCount.get()).isEqualTo(2);
-        // Should wait at least 19s * 3 = 57s
-        assertThat(duration).isGreaterThanOrEqualTo(56900);
+        // Should wait the provider's 19s, not the 10s from initialBackoff
+        assertThat(duration).isGreaterThanOrEqualTo(18900);
+        assertThat(duration).isLessThan(25000);
     }
 }
@@ -6,10 +6,16 @@ import ai.docsite.translator.diff.ChangeCategory;
 import ai.docsite.translator.diff.DiffMetadata;
 import ai.docsite.translator.diff.FileChange;
 import ai.docsite.translator.git.GitWorkflowResult;
+import ai.docsite.translator.translate.memory.ParagraphMemory;
+import dev.langchain4j.model.chat.ChatModel;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.MergeResult.MergeStatus;
 import org.eclipse.jgit.revwalk.RevCommit;
@@ -49,6 +55,36 @@ class TranslationTaskPlannerTest {
         });
     }
 
+    @Test
+    void carriesTranslationOverToRenamedDocumentsAndTranslatesOnlyChangedHunks() throws Exception {
+        RepoInfo upstream = createRepo(tempDir.resolve("upstream-rename"), "docs/old.md",
+                "Heading\nLine 1\nLine 2\n");
+        String baseUpstreamSha = upstream.sha();
+        upstream.updateFile("docs/moved.md", "Heading\nLine 1\nLine 2\n");
+        upstream.updateFile("docs/edited.md", "Heading\nLine 1 changed\nLine 2\n");
+        RepoInfo origin = createRepo(tempDir.resolve("origin-rename"), "docs/old.md",
+                "見出し\n行1\n行2\n");
+
+        DiffMetadata metadata = new DiffMetadata(List.of(
+                new FileChange("docs/moved.md", ChangeCategory.DOCUMENT_RENAMED, Optional.of("docs/old.md")),
+                new FileChange("docs/edited.md", ChangeCategory.DOCUMENT_RENAMED, Optional.of("docs/old.md"))));
+        GitWorkflowResult result = new GitWorkflowResult(upstream.path(), origin.path(),
+                "sync-" + upstream.shortSha(), upstream.sha(), upstream.shortSha(), baseUpstreamSha, origin.sha(), metadata, MergeStatus.MERGED);
+
+        List<TranslationTask> tasks = new TranslationTaskPlanner().plan(result, 0);
+
+        assertThat(tasks).hasSize(2);
+        assertThat(tasks.get(0).filePath()).isEqualTo("docs/moved.md");
+        assertThat(tasks.get(0).existingTranslationLines()).containsExactly("見出し", "行1", "行2");
+        assertThat(tasks.get(0).segments()).isEmpty();
+        assertThat(tasks.get(1).filePath()).isEqualTo("docs/edited.md");
+        assertThat(tasks.get(1).existingTranslationLines()).containsExactly("見出し", "行1", "行2");
+        assertThat(tasks.get(1).segments()).singleElement().satisfies(segment -> {
+            assertThat(segment.startLine()).isEqualTo(1);
+            assertThat(segment.endLineExclusive()).isEqualTo(2);
+        });
+    }
+
     @Test
     void respectsMaximumFilesPerRun() throws Exception {
         RepoInfo upstream = createRepo(tempDir.resolve("upstream-limit"), "docs/a.md",
@@ -84,6 +120,79 @@ class TranslationTaskPlannerTest {
         assertThat(all).hasSize(2);
     }
 
+    @Test
+    void overlapsDecisionCallsAndKeepsDiffOrderUnderFileLimit() throws Exception {
+        RepoInfo upstream = createRepo(tempDir.resolve("upstream-parallel"), "docs/a.md", "A\nOld\n");
+        appendFile(upstream, "docs/b.md", "B\nOld\n");
+        appendFile(upstream, "docs/c.md", "C\nOld\n");
+        String baseUpstreamSha = upstream.sha();
+        upstream.updateFile("docs/a.md", "A\nNew\n");
+        upstream.updateFile("docs/b.md", "B\nNew\n");
+        upstream.updateFile("docs/c.md", "C\nNew\n");
+        RepoInfo origin = createRepo(tempDir.resolve("origin-parallel"), "docs/a.md", "A\n旧訳\n");
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger decisions = new AtomicInteger();
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        ChatModel decisionModel = new ChatModel() {
+            @Override
+            public String chat(String prompt) {
+                decisions.incrementAndGet();
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                bothStarted.countDown();
+                try {
+                    bothStarted.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                inFlight.decrementAndGet();
+                return "YES";
+            }
+        };
+
+        DiffMetadata metadata = new DiffMetadata(List.of(
+                new FileChange("docs/a.md", ChangeCategory.DOCUMENT_UPDATED),
+                new FileChange("docs/b.md", ChangeCategory.DOCUMENT_UPDATED),
+                new FileChange("docs/c.md", ChangeCategory.DOCUMENT_UPDATED)));
+        GitWorkflowResult result = new GitWorkflowResult(upstream.path(), origin.path(),
+                "sync-" + upstream.shortSha(), upstream.sha(), upstream.shortSha(), baseUpstreamSha, origin.sha(), metadata, MergeStatus.MERGED);
+
+        TranslationTaskPlanner planner = new TranslationTaskPlanner(decisionModel, TranslationMode.PRODUCTION,
+                ParagraphMemory.disabled(), 0, 3);
+        List<TranslationTask> tasks = planner.plan(result, 2);
+
+        assertThat(tasks).extracting(TranslationTask::filePath).containsExactly("docs/a.md", "docs/b.md");
+        assertThat(decisions).hasValue(2);
+        assertThat(maxInFlight).hasValue(2);
+    }
+
+    @Test
+    void skipsPunctuationOnlyChangesWithoutAskingTheModel() throws Exception {
+        RepoInfo upstream = createRepo(tempDir.resolve("upstream-typo"), "docs/a.md", "# Title\nRun the command, then restart\n");
+        String baseUpstreamSha = upstream.sha();
+        upstream.updateFile("docs/a.md", "# Title\nRun the command; then restart.\n");
+        RepoInfo origin = createRepo(tempDir.resolve("origin-typo"), "docs/a.md", "# タイトル\nコマンドを実行してから再起動します\n");
+
+        AtomicInteger decisions = new AtomicInteger();
+        ChatModel decisionModel = new ChatModel() {
+            @Override
+            public String chat(String prompt) {
+                decisions.incrementAndGet();
+                return "YES";
+            }
+        };
+
+        DiffMetadata metadata = new DiffMetadata(List.of(new FileChange("docs/a.md", ChangeCategory.DOCUMENT_UPDATED)));
+        GitWorkflowResult result = new GitWorkflowResult(upstream.path(), origin.path(),
+                "sync-" + upstream.shortSha(), upstream.sha(), upstream.shortSha(), baseUpstreamSha, origin.sha(), metadata, MergeStatus.MERGED);
+
+        TranslationTaskPlanner planner = new TranslationTaskPlanner(decisionModel, TranslationMode.PRODUCTION);
+
+        assertThat(planner.plan(result, 0)).isEmpty();
+        assertThat(decisions).hasValue(0);
+    }
+
     @Test
     void splitsLargeDocumentsIntoChunks() throws Exception {
         StringBuilder english = new StringBuilder();
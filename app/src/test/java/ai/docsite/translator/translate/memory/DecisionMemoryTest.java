@@ -0,0 +1,54 @@
+package ai.docsite.translator.translate.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DecisionMemoryTest {
+
+    private static final String BASE = "3b18e512dba79e4c8300dd08aeb37f8e728b8dad";
+    private static final String NEW = "8ab686eafeb1f44702738c8b0f24f2567c36da6d";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void persistsDecisionsAcrossInstances() {
+        DecisionMemory memory = DecisionMemory.open(tempDir, 10, "GEMINI", "model", "1");
+        memory.store(BASE, NEW, false);
+        memory.store(NEW, BASE, true);
+        memory.close();
+
+        DecisionMemory reopened = DecisionMemory.open(tempDir, 10, "GEMINI", "model", "1");
+
+        assertThat(reopened.lookup(BASE, NEW)).contains(false);
+        assertThat(reopened.lookup(NEW, BASE)).contains(true);
+        assertThat(reopened.lookup(BASE, BASE)).isEmpty();
+    }
+
+    @Test
+    void keysIncludeModelAndPromptVersion() {
+        DecisionMemory memory = DecisionMemory.open(tempDir, 10, "GEMINI", "model", "1");
+        memory.store(BASE, NEW, true);
+        memory.close();
+
+        assertThat(DecisionMemory.open(tempDir, 10, "GEMINI", "other-model", "1").lookup(BASE, NEW)).isEmpty();
+        assertThat(DecisionMemory.open(tempDir, 10, "GEMINI", "model", "2").lookup(BASE, NEW)).isEmpty();
+    }
+
+    @Test
+    void ignoresMissingBlobIdsAndDisabledMemory() {
+        DecisionMemory memory = DecisionMemory.open(tempDir, 10, "GEMINI", "model", "1");
+        memory.store(null, NEW, true);
+        assertThat(memory.size()).isZero();
+        assertThat(memory.lookup(null, NEW)).isEmpty();
+
+        DecisionMemory disabled = DecisionMemory.open(tempDir, 0, "GEMINI", "model", "1");
+        disabled.store(BASE, NEW, true);
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.lookup(BASE, NEW)).isEmpty();
+        assertThat(tempDir.resolve("decision-memory.log")).doesNotExist();
+    }
+}
@@ -0,0 +1,99 @@
+package ai.docsite.translator.translate.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParagraphMemoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void matchesParagraphsAfterWhitespaceAndPunctuationNormalization() {
+        ParagraphMemory memory = ParagraphMemory.open(tempDir, 10);
+        memory.index(List.of("Hello,  world.", "", "Second paragraph"), List.of("こんにちは、世界。", "", "二段落目"));
+        memory.close();
+
+        ParagraphMemory reopened = ParagraphMemory.open(tempDir, 10);
+
+        assertThat(reopened.lookup(List.of("Hello world!", "", "Second paragraph.")))
+                .contains(List.of("こんにちは、世界。", "", "二段落目"));
+    }
+
+    @Test
+    void requiresEveryParagraphToBeKnown() {
+        ParagraphMemory memory = ParagraphMemory.open(tempDir, 10);
+        memory.index(List.of("Known paragraph"), List.of("既知の段落"));
+
+        assertThat(memory.lookup(List.of("Known paragraph", "", "Brand new paragraph"))).isEmpty();
+        assertThat(memory.lookup(List.of("Known paragraph with a typo fixed"))).isEmpty();
+    }
+
+    @Test
+    void keepsMarkdownBlockMarkersSignificant() {
+        ParagraphMemory memory = ParagraphMemory.open(tempDir, 10);
+        memory.index(List.of("# Overview"), List.of("# 概要"));
+
+        assertThat(memory.lookup(List.of("Overview"))).isEmpty();
+        assertThat(memory.lookup(List.of("#  Overview."))).contains(List.of("# 概要"));
+    }
+
+    @Test
+    void keepsIdentifierPunctuationCodeSpansAndLinksSignificant() {
+        ParagraphMemory memory = ParagraphMemory.open(tempDir, 10);
+        memory.index(List.of("Call foo.bar() with --force"), List.of("--force を付けて foo.bar() を呼ぶ"));
+        memory.index(List.of("Set the limit to -5"), List.of("上限を -5 にする"));
+        memory.index(List.of("Run `npm run build` first"), List.of("まず `npm run build` を実行する"));
+        memory.index(List.of("See [the guide](https://example.com/v1)"), List.of("[ガイド](https://example.com/v1) を参照"));
+
+        assertThat(memory.lookup(List.of("Call foo_bar() with --force"))).isEmpty();
+        assertThat(memory.lookup(List.of("Call foo.bar() with -force"))).isEmpty();
+        assertThat(memory.lookup(List.of("Set the limit to 5"))).isEmpty();
+        assertThat(memory.lookup(List.of("Run `npm run-build` first"))).isEmpty();
+        assertThat(memory.lookup(List.of("See [the guide](https://example.com/v2)"))).isEmpty();
+        assertThat(memory.lookup(List.of("Call foo.bar() with --force."))).contains(List.of("--force を付けて foo.bar() を呼ぶ"));
+    }
+
+    @Test
+    void indexesOnlyTheParagraphsAroundTheGivenLines() {
+        ParagraphMemory memory = ParagraphMemory.open(tempDir, 10);
+        Set<Integer> read = new TreeSet<>();
+        List<String> source = List.of("First", "", "Second a", "Second b", "", "Third");
+        List<String> recording = new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                read.add(index);
+                return source.get(index);
+            }
+
+            @Override
+            public int size() {
+                return source.size();
+            }
+        };
+
+        memory.index(recording, List.of("一", "", "二 a", "二 b", "", "三"), 3, 4);
+
+        assertThat(read).containsExactly(1, 2, 3, 4);
+        assertThat(memory.lookup(List.of("Second a", "Second b"))).contains(List.of("二 a", "二 b"));
+        assertThat(memory.lookup(List.of("First"))).isEmpty();
+        assertThat(memory.lookup(List.of("Third"))).isEmpty();
+    }
+
+    @Test
+    void ignoresUntranslatedOrMisalignedPairs() {
+        ParagraphMemory memory = ParagraphMemory.open(tempDir, 10);
+        memory.index(List.of("Left in English"), List.of("Left in English"));
+        memory.index(List.of("One", "Two"), List.of("一"));
+
+        assertThat(memory.lookup(List.of("Left in English"))).isEmpty();
+        assertThat(memory.lookup(List.of("One", "Two"))).isEmpty();
+    }
+}
@@ -0,0 +1,65 @@
+package ai.docsite.translator.translate.memory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TranslationMemoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void persistsEntriesAcrossInstances() {
+        TranslationMemory memory = TranslationMemory.open(tempDir, 10, "GEMINI", "model", "1");
+        memory.store(List.of("Hello", "", "World"), List.of("こんにちは", "", "世界"));
+        memory.close();
+
+        TranslationMemory reopened = TranslationMemory.open(tempDir, 10, "GEMINI", "model", "1");
+
+        assertThat(reopened.lookup(List.of("Hello", "", "World"))).contains(List.of("こんにちは", "", "世界"));
+        assertThat(reopened.lookup(List.of("Hello"))).isEmpty();
+    }
+
+    @Test
+    void keysIncludeModelAndPromptVersion() {
+        TranslationMemory memory = TranslationMemory.open(tempDir, 10, "GEMINI", "model", "1");
+        memory.store(List.of("Hello"), List.of("こんにちは"));
+        memory.close();
+
+        assertThat(TranslationMemory.open(tempDir, 10, "GEMINI", "other-model", "1").lookup(List.of("Hello"))).isEmpty();
+        assertThat(TranslationMemory.open(tempDir, 10, "GEMINI", "model", "2").lookup(List.of("Hello"))).isEmpty();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesAndCompactsFile() throws Exception {
+        TranslationMemory memory = TranslationMemory.open(tempDir, 2, "OLLAMA", "model", "1");
+        memory.store(List.of("a"), List.of("A"));
+        memory.store(List.of("b"), List.of("B"));
+        memory.lookup(List.of("a"));
+        memory.store(List.of("c"), List.of("C"));
+        memory.store(List.of("d"), List.of("D"));
+        memory.store(List.of("e"), List.of("E"));
+        memory.close();
+
+        assertThat(memory.size()).isEqualTo(2);
+        assertThat(Files.readAllLines(tempDir.resolve("translation-memory.log"))).hasSizeLessThanOrEqualTo(4);
+        TranslationMemory reopened = TranslationMemory.open(tempDir, 2, "OLLAMA", "model", "1");
+        assertThat(reopened.lookup(List.of("e"))).contains(List.of("E"));
+        assertThat(reopened.lookup(List.of("a"))).isEmpty();
+    }
+
+    @Test
+    void disabledMemoryNeverStores() {
+        TranslationMemory memory = TranslationMemory.open(tempDir, 0, "GEMINI", "model", "1");
+        memory.store(List.of("Hello"), List.of("こんにちは"));
+
+        assertThat(memory.isEnabled()).isFalse();
+        assertThat(memory.lookup(List.of("Hello"))).isEmpty();
+        assertThat(tempDir.resolve("translation-memory.log")).doesNotExist();
+    }
+}
@@ -0,0 +1,107 @@
+package ai.docsite.translator.translate.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveRateLimiterTest {
+
+    private final FakeClock clock = new FakeClock();
+
+    @Test
+    void unboundedLimiterNeverWaits() {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(0, 0, clock::now, clock::sleep);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire(10_000);
+        }
+
+        assertThat(clock.sleeps).isEmpty();
+    }
+
+    @Test
+    void pacesRequestsOnceBurstIsExhausted() {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(60, 0, clock::now, clock::sleep);
+
+        for (int i = 0; i < 6; i++) {
+            limiter.acquire(1);
+        }
+        assertThat(clock.sleeps).isEmpty();
+
+        limiter.acquire(1);
+
+        assertThat(clock.sleeps).containsExactly(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void pacesRequestsByEstimatedTokens() {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(0, 1_000, clock::now, clock::sleep);
+
+        limiter.acquire(1_000);
+        limiter.acquire(500);
+
+        assertThat(clock.sleeps).containsExactly(TimeUnit.SECONDS.toNanos(30));
+    }
+
+    @Test
+    void learnsRequestRateFromRateLimitResponses() {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(0, 0, clock::now, clock::sleep);
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(1);
+        }
+
+        limiter.onRateLimited(Optional.empty());
+
+        assertThat(limiter.requestsPerMinute()).isEqualTo(8);
+        limiter.acquire(1);
+        assertThat(clock.sleeps).containsExactly(TimeUnit.SECONDS.toNanos(60) / 8);
+    }
+
+    @Test
+    void holdsAllCallersUntilProviderRetryDelayElapses() {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(0, 0, clock::now, clock::sleep);
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(1);
+        }
+
+        limiter.onRateLimited(Optional.of(Duration.ofSeconds(20)));
+        limiter.acquire(1);
+
+        assertThat(clock.sleeps).containsExactly(TimeUnit.SECONDS.toNanos(20));
+    }
+
+    @Test
+    void recoversLearnedRateAfterSuccessfulWindow() {
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(10, 0, clock::now, clock::sleep);
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(1);
+        }
+        limiter.onRateLimited(Optional.empty());
+        assertThat(limiter.requestsPerMinute()).isEqualTo(4);
+
+        for (int i = 0; i < 4; i++) {
+            limiter.onSuccess(0);
+        }
+
+        assertThat(limiter.requestsPerMinute()).isEqualTo(5);
+    }
+
+    private static final class FakeClock {
+        private long nanos;
+        private final List<Long> sleeps = new ArrayList<>();
+
+        long now() {
+            return nanos;
+        }
+
+        void sleep(long duration) {
+            sleeps.add(duration);
+            nanos += duration;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package ai.docsite.translator.translate.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class RateLimitedChatModelTest {
+
+    private final ChatModelListener listener = new ChatModelListener() {
+    };
+
+    @Test
+    void exposesTheDelegateModelDescription() {
+        ChatModel delegate = new ChatModel() {
+            @Override
+            public String chat(String userMessage) {
+                return userMessage;
+            }
+
+            @Override
+            public Set<Capability> supportedCapabilities() {
+                return Set.of(Capability.RESPONSE_FORMAT_JSON_SCHEMA);
+            }
+
+            @Override
+            public List<ChatModelListener> listeners() {
+                return List.of(listener);
+            }
+
+            @Override
+            public ModelProvider provider() {
+                return ModelProvider.GOOGLE_AI_GEMINI;
+            }
+        };
+
+        ChatModel model = new RateLimitedChatModel(delegate, new AdaptiveRateLimiter(0, 0));
+
+        assertThat(model.supportedCapabilities()).containsExactly(Capability.RESPONSE_FORMAT_JSON_SCHEMA);
+        assertThat(model.listeners()).containsExactly(listener);
+        assertThat(model.provider()).isEqualTo(ModelProvider.GOOGLE_AI_GEMINI);
+        assertThat(model.defaultRequestParameters()).isSameAs(delegate.defaultRequestParameters());
+    }
+
+    @Test
+    void exposesTheDelegateStreamingModelDescription() {
+        StreamingChatModel delegate = new StreamingChatModel() {
+            @Override
+            public void chat(String userMessage, StreamingChatResponseHandler handler) {
+            }
+
+            @Override
+            public Set<Capability> supportedCapabilities() {
+                return Set.of(Capability.RESPONSE_FORMAT_JSON_SCHEMA);
+            }
+
+            @Override
+            public List<ChatModelListener> listeners() {
+                return List.of(listener);
+            }
+
+            @Override
+            public ModelProvider provider() {
+                return ModelProvider.OLLAMA;
+            }
+        };
+
+        StreamingChatModel model = new RateLimitedStreamingChatModel(delegate, new AdaptiveRateLimiter(0, 0));
+
+        assertThat(model.supportedCapabilities()).containsExactly(Capability.RESPONSE_FORMAT_JSON_SCHEMA);
+        assertThat(model.listeners()).containsExactly(listener);
+        assertThat(model.provider()).isEqualTo(ModelProvider.OLLAMA);
+        assertThat(model.defaultRequestParameters()).isSameAs(delegate.defaultRequestParameters());
+    }
+}